@@ -107,14 +107,18 @@ export const MovieCard = ({ movie, inWatchlist: initialInWatchlist, onWatchlistC
             <span className="text-yellow-400 font-semibold text-sm">{movie.imdbRating}</span>
           </div>
         )}
-        <div className="flex items-center gap-2 text-sm text-gray-400 mb-1">
-          <UserIcon className="w-4 h-4" />
-          <span className="line-clamp-1">{movie.director}</span>
-        </div>
-        <div className="flex items-center gap-2 text-sm text-gray-400">
-          <Calendar className="w-4 h-4" />
-          <span>{movie.genre}</span>
-        </div>
+        {movie.director && (
+          <div className="flex items-center gap-2 text-sm text-gray-400 mb-1">
+            <UserIcon className="w-4 h-4" />
+            <span className="line-clamp-1">{movie.director}</span>
+          </div>
+        )}
+        {movie.genre && (
+          <div className="flex items-center gap-2 text-sm text-gray-400">
+            <Calendar className="w-4 h-4" />
+            <span>{movie.genre}</span>
+          </div>
+        )}
         {movie.type === 'TV_SERIES' && movie.seasons && (
           <div className="mt-2 text-sm text-gray-400">
             <span>{movie.seasons} {movie.seasons === 1 ? 'sesong' : 'sesonger'}</span>
@@ -23,6 +23,7 @@ export const AddMovie = () => {
     episodes: '',
     imdbId: '',
     imdbRating: '',
+    version: null,
   });
 
   useEffect(() => {
@@ -46,6 +47,8 @@ export const AddMovie = () => {
         episodes: data.episodes || '',
         imdbId: data.imdbId || '',
         imdbRating: data.imdbRating || '',
+        // Sent back on save so an edit made elsewhere in the meantime is rejected, not overwritten
+        version: data.version,
       });
     } catch (error) {
       addToast('Failed to load movie', 'error');
@@ -76,6 +79,7 @@ export const AddMovie = () => {
         episodes: formData.type === 'TV_SERIES' && formData.episodes ? parseInt(formData.episodes) : null,
         imdbId: formData.imdbId || null,
         imdbRating: formData.imdbRating ? parseFloat(formData.imdbRating) : null,
+        version: formData.version,
       };
 
       if (id) {
@@ -1,7 +1,8 @@
 import { useState, useEffect } from 'react';
-import { Bookmark, MessageSquare } from 'lucide-react';
+import { Bookmark, MessageSquare, Sparkles } from 'lucide-react';
 import { watchlistService } from '../services/watchlistService';
 import { reviewService } from '../services/reviewService';
+import { movieService } from '../services/movieService';
 import { MovieGrid } from '../components/movies/MovieGrid';
 import { ReviewCard } from '../components/reviews/ReviewCard';
 import { ReviewForm } from '../components/reviews/ReviewForm';
@@ -11,6 +12,8 @@ import { useToast } from '../components/common/Toast';
 export const Dashboard = () => {
   const [watchlist, setWatchlist] = useState([]);
   const [myReviews, setMyReviews] = useState([]);
+  const [recommendations, setRecommendations] = useState([]);
+  const [recommendationsFailed, setRecommendationsFailed] = useState(false);
   const [loading, setLoading] = useState(true);
   const [activeTab, setActiveTab] = useState('watchlist');
   const [editingReview, setEditingReview] = useState(null);
@@ -19,6 +22,7 @@ export const Dashboard = () => {
 
   useEffect(() => {
     fetchData();
+    fetchRecommendations();
   }, []);
 
   const fetchData = async () => {
@@ -38,6 +42,17 @@ export const Dashboard = () => {
     }
   };
 
+  // Loaded on its own so a failing "For You" feed leaves the rest of the dashboard usable
+  const fetchRecommendations = async () => {
+    try {
+      setRecommendationsFailed(false);
+      setRecommendations(await movieService.getRecommendations());
+    } catch (error) {
+      console.error('Error fetching recommendations:', error);
+      setRecommendationsFailed(true);
+    }
+  };
+
   const handleRemoveFromWatchlist = async (movieId) => {
     try {
       await watchlistService.removeFromWatchlist(movieId);
@@ -67,7 +82,7 @@ export const Dashboard = () => {
   const handleUpdateReview = async (reviewData) => {
     try {
       setSubmittingReview(true);
-      await reviewService.updateReview(editingReview.id, reviewData);
+      await reviewService.updateReview(editingReview.id, { ...reviewData, version: editingReview.version });
       addToast('Review updated successfully!', 'success');
       setEditingReview(null);
       fetchData();
@@ -111,6 +126,17 @@ export const Dashboard = () => {
             <MessageSquare className="w-5 h-5" />
             My Reviews ({myReviews.length})
           </button>
+          <button
+            onClick={() => setActiveTab('recommendations')}
+            className={`flex items-center gap-2 px-4 py-3 font-medium transition-all ${
+              activeTab === 'recommendations'
+                ? 'text-red-500 border-b-2 border-red-500'
+                : 'text-gray-400 hover:text-gray-300'
+            }`}
+          >
+            <Sparkles className="w-5 h-5" />
+            For You
+          </button>
         </div>
 
         {/* Content */}
@@ -168,6 +194,34 @@ export const Dashboard = () => {
             )}
           </div>
         )}
+
+        {activeTab === 'recommendations' && (
+          <div>
+            {recommendationsFailed ? (
+              <div className="text-center py-12">
+                <Sparkles className="w-16 h-16 text-gray-600 mx-auto mb-4" />
+                <p className="text-gray-400 text-lg">Couldn't load your picks</p>
+                <button
+                  onClick={fetchRecommendations}
+                  className="text-red-500 hover:text-red-400 font-medium mt-2"
+                >
+                  Try again
+                </button>
+              </div>
+            ) : recommendations.length === 0 ? (
+              <div className="text-center py-12">
+                <Sparkles className="w-16 h-16 text-gray-600 mx-auto mb-4" />
+                <p className="text-gray-400 text-lg">No recommendations yet</p>
+                <p className="text-gray-500 mt-2">Review movies or add them to your watchlist to get picks for you!</p>
+              </div>
+            ) : (
+              <MovieGrid
+                movies={recommendations}
+                watchlistMovieIds={new Set(watchlist.map(item => item.movie.id))}
+              />
+            )}
+          </div>
+        )}
       </div>
     </div>
   );
@@ -13,6 +13,8 @@ export const Home = () => {
   const [movies, setMovies] = useState([]);
   const [filteredMovies, setFilteredMovies] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [searchQuery, setSearchQuery] = useState('');
   const [selectedGenre, setSelectedGenre] = useState('');
   const [selectedType, setSelectedType] = useState(searchParams.get('type') || 'MOVIE');
@@ -40,22 +42,26 @@ export const Home = () => {
     filterMovies();
   }, [searchQuery, selectedGenre, movies]);
 
+  const buildRatingsMap = (items) => {
+    // Movie ratings are now included in the response from backend
+    const ratingsMap = {};
+    items.forEach(movie => {
+      ratingsMap[movie.id] = {
+        averageRating: movie.averageRating,
+        reviewCount: movie.reviewCount
+      };
+    });
+    return ratingsMap;
+  };
+
   const fetchMovies = async () => {
     try {
       setLoading(true);
-      const data = await movieService.getAllMovies(selectedType, sortBy);
-      setMovies(data);
-      setFilteredMovies(data);
-      
-      // Movie ratings are now included in the response from backend
-      const ratingsMap = {};
-      data.forEach(movie => {
-        ratingsMap[movie.id] = {
-          averageRating: movie.averageRating,
-          reviewCount: movie.reviewCount
-        };
-      });
-      setMovieRatings(ratingsMap);
+      const page = await movieService.getAllMovies(selectedType, sortBy);
+      setMovies(page.items);
+      setFilteredMovies(page.items);
+      setNextCursor(page.nextCursor);
+      setMovieRatings(buildRatingsMap(page.items));
     } catch (error) {
       console.error('Error fetching movies:', error);
       addToast('Failed to load content', 'error');
@@ -64,6 +70,22 @@ export const Home = () => {
     }
   };
 
+  const loadMoreMovies = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const page = await movieService.getAllMovies(selectedType, sortBy, nextCursor);
+      setMovies(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+      setMovieRatings(prev => ({ ...prev, ...buildRatingsMap(page.items) }));
+    } catch (error) {
+      console.error('Error fetching more movies:', error);
+      addToast('Failed to load more content', 'error');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const fetchWatchlist = async () => {
     try {
       const watchlist = await watchlistService.getWatchlist();
@@ -263,6 +285,19 @@ export const Home = () => {
           movieRatings={movieRatings}
           contentType={selectedType}
         />
+
+        {/* Load More */}
+        {!loading && nextCursor && (
+          <div className="mt-10 flex justify-center">
+            <button
+              onClick={loadMoreMovies}
+              disabled={loadingMore}
+              className="px-6 py-3 bg-gray-800 hover:bg-gray-700 disabled:opacity-50 text-white rounded-lg transition font-medium"
+            >
+              {loadingMore ? 'Loading...' : 'Load more'}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
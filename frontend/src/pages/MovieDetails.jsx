@@ -135,7 +135,7 @@ export const MovieDetails = () => {
   const handleUpdateReview = async (reviewData) => {
     try {
       setSubmittingReview(true);
-      await reviewService.updateReview(editingReview.id, reviewData);
+      await reviewService.updateReview(editingReview.id, { ...reviewData, version: editingReview.version });
       addToast('Review updated successfully!', 'success');
       setEditingReview(null);
       fetchReviews();
@@ -171,10 +171,10 @@ export const MovieDetails = () => {
       const userReview = reviews.find(r => r.username === user?.username);
       
       if (userReview) {
-        // Update existing review with new rating
-        await reviewService.updateReview(userReview.id, {
+        // Change only the rating, keeping the comment as it is on the server
+        await reviewService.patchReview(userReview.id, {
           rating,
-          comment: userReview.comment || null
+          version: userReview.version
         });
         addToast('Rating updated!', 'success');
       } else {
@@ -1,14 +1,22 @@
 import api from './api';
 
 export const movieService = {
-  getAllMovies: async (type, sort) => {
+  // Returns one page: { items, nextCursor }. Pass nextCursor back to load the next page.
+  getAllMovies: async (type, sort, cursor) => {
     const params = {};
     if (type) params.type = type;
     if (sort) params.sort = sort;
+    if (cursor) params.cursor = cursor;
     const response = await api.get('/movies', { params });
     return response.data;
   },
 
+  // Personal picks in compact card form, best first; popular movies until the first feed is computed
+  getRecommendations: async (limit = 20) => {
+    const response = await api.get('/users/me/recommendations', { params: { limit } });
+    return response.data;
+  },
+
   getMovieById: async (id) => {
     const response = await api.get(`/movies/${id}`);
     return response.data;
@@ -6,6 +6,11 @@ export const reviewService = {
     return response.data;
   },
 
+  patchReview: async (reviewId, data) => {
+    const response = await api.patch(`/reviews/${reviewId}`, data);
+    return response.data;
+  },
+
   deleteReview: async (reviewId) => {
     const response = await api.delete(`/reviews/${reviewId}`);
     return response.data;
@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Runs the k6 read mix against the app in platform-thread and in virtual-thread mode and
+# prints throughput and latency of both. Expects k6 and jq on the PATH and the default
+# PostgreSQL database; the first run fills it through the loadtest profile.
+#   loadtest/compare-thread-modes.sh            # 2000 clients for 3 minutes per mode
+#   VUS=500 DURATION=1m loadtest/compare-thread-modes.sh
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+export VUS="${VUS:-2000}" DURATION="${DURATION:-3m}"
+RESULTS=build/loadtest
+mkdir -p "$RESULTS"
+
+./gradlew -q bootJar
+JAR=$(ls build/libs/*.jar | grep -v plain | head -n 1)
+
+run_mode() {
+    local mode=$1 profiles=$2
+    echo "== $mode threads ($profiles)"
+    java -jar "$JAR" --spring.profiles.active="$profiles" > "$RESULTS/$mode-app.log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:8080/api/movies?limit=1" > /dev/null; do
+        kill -0 "$pid" 2> /dev/null || { echo "app failed to start, see $RESULTS/$mode-app.log"; exit 1; }
+        sleep 2
+    done
+    k6 run --quiet --summary-export "$RESULTS/$mode.json" loadtest/k6/read-mix.js || true
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+run_mode platform loadtest
+run_mode virtual loadtest,vthreads
+
+printf '\n%-10s %12s %10s %10s %10s %8s\n' mode req/s p50_ms p95_ms p99_ms failed
+for mode in platform virtual; do
+    jq -r --arg mode "$mode" '[$mode,
+        (.metrics.http_reqs.rate | floor),
+        (.metrics.http_req_duration["p(50)"] | floor),
+        (.metrics.http_req_duration["p(95)"] | floor),
+        (.metrics.http_req_duration["p(99)"] | floor),
+        ((.metrics.http_req_failed.value // 0) * 100 | tostring + "%")] | @tsv' "$RESULTS/$mode.json" \
+        | awk -F'\t' '{ printf "%-10s %12s %10s %10s %10s %8s\n", $1, $2, $3, $4, $5, $6 }'
+done
@@ -0,0 +1,76 @@
+// Read-heavy traffic mix against a database filled by the loadtest profile.
+//   k6 run -e VUS=2000 -e DURATION=3m loadtest/k6/read-mix.js
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = Number(__ENV.VUS || 2000);
+const DURATION = __ENV.DURATION || '3m';
+const MOVIES = Number(__ENV.MOVIES || 20000);
+const USERS = Number(__ENV.USERS || 10000);
+const THINK_TIME = Number(__ENV.THINK_TIME || 0.2);
+const LOGGED_IN_USERS = 50;
+
+const SEARCHES = ['silent', 'river', 'nolan', 'midnight empire', 'drama', 'gerwig', 'golden harbor'];
+
+export const options = {
+  scenarios: {
+    clients: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: VUS },
+        { duration: DURATION, target: VUS },
+        { duration: '10s', target: 0 },
+      ],
+      gracefulRampDown: '10s',
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+export function setup() {
+  // Password hashing is slow by design, so log in a few users once and share their tokens
+  const tokens = [];
+  for (let i = 1; i <= Math.min(LOGGED_IN_USERS, USERS); i++) {
+    const res = http.post(`${BASE_URL}/api/auth/login`,
+      JSON.stringify({ username: `loadtest_user_${i}`, password: 'password123' }),
+      { headers: { 'Content-Type': 'application/json' } });
+    if (res.status === 200) {
+      tokens.push(res.json('token'));
+    }
+  }
+  if (tokens.length === 0) {
+    throw new Error('No loadtest user could log in - start the app with the loadtest profile first');
+  }
+  return { tokens };
+}
+
+// Low ids are requested far more often, roughly like the skew of the generated reviews
+function popularMovieId() {
+  return 1 + Math.floor(MOVIES * Math.pow(Math.random(), 3));
+}
+
+export default function (data) {
+  const pick = Math.random();
+  let res;
+  if (pick < 0.35) {
+    res = http.get(`${BASE_URL}/api/movies/${popularMovieId()}`, { tags: { name: 'movie' } });
+  } else if (pick < 0.55) {
+    res = http.get(`${BASE_URL}/api/movies?sort=rating&limit=24`, { tags: { name: 'catalog' } });
+  } else if (pick < 0.70) {
+    const keyword = SEARCHES[Math.floor(Math.random() * SEARCHES.length)];
+    res = http.get(`${BASE_URL}/api/movies/search?keyword=${encodeURIComponent(keyword)}`, { tags: { name: 'search' } });
+  } else if (pick < 0.85) {
+    res = http.get(`${BASE_URL}/api/movies/${popularMovieId()}/reviews?page=0&size=20`, { tags: { name: 'reviews' } });
+  } else {
+    const token = data.tokens[Math.floor(Math.random() * data.tokens.length)];
+    res = http.get(`${BASE_URL}/api/watchlist?page=0&size=20`,
+      { headers: { Authorization: `Bearer ${token}` }, tags: { name: 'watchlist' } });
+  }
+  check(res, { 'status is 200': (r) => r.status === 200 });
+  sleep(THINK_TIME);
+}
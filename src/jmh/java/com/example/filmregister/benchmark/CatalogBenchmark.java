@@ -0,0 +1,71 @@
+package com.example.filmregister.benchmark;
+
+import com.example.filmregister.dto.response.CursorPageResponse;
+import com.example.filmregister.dto.response.MovieResponse;
+import com.example.filmregister.service.MovieService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog listing at each sort mode: the first page, and a page deep in the ordering
+ * resumed from its cursor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CatalogBenchmark {
+    
+    private static final int PAGE_SIZE = 24;
+    
+    @Param({"1000", "100000", "1000000"})
+    private int reviews;
+    
+    @Param({"default", "rating", "reviews", "imdb"})
+    private String sort;
+    
+    private SeededCatalog catalog;
+    private MovieService movieService;
+    private String deepCursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = SeededCatalog.start(reviews);
+        movieService = catalog.bean(MovieService.class);
+        
+        // Walk roughly halfway through the catalog to get a cursor from the middle
+        String cursor = null;
+        for (int page = 0; page < catalog.movieCount() / PAGE_SIZE / 2; page++) {
+            CursorPageResponse<MovieResponse> response = movieService.getMoviesPage(null, sort, cursor, PAGE_SIZE);
+            if (response.getNextCursor() == null) {
+                break;
+            }
+            cursor = response.getNextCursor();
+        }
+        deepCursor = cursor;
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        catalog.close();
+    }
+    
+    @Benchmark
+    public CursorPageResponse<MovieResponse> firstPage() {
+        return movieService.getMoviesPage(null, sort, null, PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public CursorPageResponse<MovieResponse> deepPage() {
+        return movieService.getMoviesPage(null, sort, deepCursor, PAGE_SIZE);
+    }
+}
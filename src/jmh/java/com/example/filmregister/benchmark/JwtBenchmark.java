@@ -0,0 +1,63 @@
+package com.example.filmregister.benchmark;
+
+import com.example.filmregister.entity.User;
+import com.example.filmregister.security.JwtUtil;
+import com.example.filmregister.security.UserDetailsImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification as done per authenticated request, with the verified-token cache
+ * and with it disabled (a full signature check every time).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtBenchmark {
+    
+    private static final String SECRET = "benchmarkSecretKeyForJWTTokenGeneration123456789";
+    private static final long EXPIRATION = 3_600_000L;
+    
+    private JwtUtil cachingJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        cachingJwtUtil = new JwtUtil(SECRET, EXPIRATION, 10_000L);
+        uncachedJwtUtil = new JwtUtil(SECRET, EXPIRATION, 0L);
+        
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("bench_user");
+        user.setEmail("bench_user@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        token = cachingJwtUtil.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+    
+    @Benchmark
+    public boolean validateTokenCached() {
+        return cachingJwtUtil.validateToken(token);
+    }
+    
+    @Benchmark
+    public boolean validateTokenUncached() {
+        return uncachedJwtUtil.validateToken(token);
+    }
+    
+    @Benchmark
+    public UserDetailsImpl principalFromToken() {
+        return cachingJwtUtil.getUserDetailsFromValidToken(token);
+    }
+}
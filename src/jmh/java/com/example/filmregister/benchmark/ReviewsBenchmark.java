@@ -0,0 +1,63 @@
+package com.example.filmregister.benchmark;
+
+import com.example.filmregister.dto.response.ReviewResponse;
+import com.example.filmregister.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Review listing for one movie, in full and as a single page, for the most reviewed
+ * title in the skewed catalog and for a typical one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReviewsBenchmark {
+    
+    @Param({"1000", "100000", "1000000"})
+    private int reviews;
+    
+    private SeededCatalog catalog;
+    private ReviewService reviewService;
+    private long popularMovieId;
+    private long typicalMovieId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = SeededCatalog.start(reviews);
+        reviewService = catalog.bean(ReviewService.class);
+        popularMovieId = catalog.mostReviewedMovieId();
+        typicalMovieId = catalog.medianMovieId();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        catalog.close();
+    }
+    
+    @Benchmark
+    public List<ReviewResponse> allReviewsOfPopularMovie() {
+        return reviewService.getMovieReviews(popularMovieId, null, null);
+    }
+    
+    @Benchmark
+    public List<ReviewResponse> firstPageOfPopularMovie() {
+        return reviewService.getMovieReviews(popularMovieId, 0, 20);
+    }
+    
+    @Benchmark
+    public List<ReviewResponse> allReviewsOfTypicalMovie() {
+        return reviewService.getMovieReviews(typicalMovieId, null, null);
+    }
+}
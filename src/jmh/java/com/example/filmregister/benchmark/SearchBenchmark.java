@@ -0,0 +1,67 @@
+package com.example.filmregister.benchmark;
+
+import com.example.filmregister.dto.response.MovieResponse;
+import com.example.filmregister.dto.response.MovieSuggestionResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.repository.MovieRepository;
+import com.example.filmregister.service.MovieService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword search through the in-memory index, search-as-you-type suggestions, and the
+ * LIKE query the index replaced as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+    
+    @Param({"1000", "100000", "1000000"})
+    private int reviews;
+    
+    @Param({"nolan", "silent river", "thriler"})
+    private String query;
+    
+    private SeededCatalog catalog;
+    private MovieService movieService;
+    private MovieRepository movieRepository;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = SeededCatalog.start(reviews);
+        movieService = catalog.bean(MovieService.class);
+        movieRepository = catalog.bean(MovieRepository.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        catalog.close();
+    }
+    
+    @Benchmark
+    public List<MovieResponse> searchMovies() {
+        return movieService.searchMovies(query);
+    }
+    
+    @Benchmark
+    public List<MovieSuggestionResponse> suggestMovies() {
+        return movieService.suggestMovies(query, 8);
+    }
+    
+    @Benchmark
+    public List<Movie> likeQueryBaseline() {
+        return movieRepository.searchMovies(query);
+    }
+}
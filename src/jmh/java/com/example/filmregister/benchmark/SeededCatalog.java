@@ -0,0 +1,68 @@
+package com.example.filmregister.benchmark;
+
+import com.example.filmregister.FilmregisterApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Boots the application against a private in-memory H2 database filled by the
+ * {@code loadtest} profile's generator, so benchmarks exercise the real services and
+ * queries on a skewed, realistic catalog.
+ * <p>
+ * The dataset is sized by its number of reviews; movies, users and watchlist entries
+ * scale with it.
+ */
+public final class SeededCatalog implements AutoCloseable {
+    
+    private final ConfigurableApplicationContext context;
+    private final int movieCount;
+    
+    private SeededCatalog(ConfigurableApplicationContext context, int movieCount) {
+        this.context = context;
+        this.movieCount = movieCount;
+    }
+    
+    public static SeededCatalog start(int reviews) {
+        int movies = Math.max(1000, reviews / 50);
+        int users = Math.max(100, reviews / 100);
+        // The search index is built on ApplicationReadyEvent, after the generator has run
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmregisterApplication.class)
+                .profiles("test", "loadtest")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh" + reviews,
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "loadtest.reviews=" + reviews,
+                        "loadtest.movies=" + movies,
+                        "loadtest.users=" + users,
+                        "loadtest.watchlist-entries=" + reviews / 5)
+                .run();
+        return new SeededCatalog(context, movies);
+    }
+    
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+    
+    public int movieCount() {
+        return movieCount;
+    }
+    
+    public long mostReviewedMovieId() {
+        return context.getBean(JdbcTemplate.class)
+                .queryForObject("SELECT id FROM movies ORDER BY review_count DESC, id LIMIT 1", Long.class);
+    }
+    
+    public long medianMovieId() {
+        return context.getBean(JdbcTemplate.class)
+                .queryForObject("SELECT id FROM movies ORDER BY review_count DESC, id OFFSET ? ROWS FETCH FIRST 1 ROWS ONLY",
+                        Long.class, movieCount / 2);
+    }
+    
+    @Override
+    public void close() {
+        context.close();
+    }
+}
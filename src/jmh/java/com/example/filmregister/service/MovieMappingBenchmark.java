@@ -0,0 +1,52 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.response.MovieResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.entity.MovieType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-response mapping, done once per row on every catalog and search response.
+ * Lives in the service package because mapToResponse is package-private.
+ * The mapping is static, so no service (and none of its collaborators) is built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MovieMappingBenchmark {
+    
+    private Movie movie;
+    
+    @Setup
+    public void setUp() {
+        movie = new Movie();
+        movie.setId(42L);
+        movie.setTitle("Silent River");
+        movie.setDescription("A drama directed by Jane Campion");
+        movie.setReleaseYear(2019);
+        movie.setGenre("Drama");
+        movie.setDirector("Jane Campion");
+        movie.setActors("Actor One, Actor Two");
+        movie.setType(MovieType.MOVIE);
+        movie.setImdbRating(7.4);
+        movie.setReviewCount(120L);
+        movie.setRatingSum(900L);
+        movie.setAverageRating(7.5);
+        movie.setCreatedAt(LocalDateTime.now());
+        movie.setUpdatedAt(LocalDateTime.now());
+    }
+    
+    @Benchmark
+    public MovieResponse mapToResponse() {
+        return MovieService.mapToResponse(movie);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.filmregister.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables {@code @Async}. Tasks run on the auto-configured application task executor,
+ * which uses virtual threads in the {@code vthreads} profile and a bounded pool of
+ * platform threads otherwise. Streamed MVC responses use the same executor.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,55 @@
+package com.example.filmregister.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded in-process caches. Puts and evictions made inside a transaction are applied
+ * after it commits, so a rolled back write never evicts and a reader never caches
+ * state that was not committed. Hit/miss statistics are recorded per cache.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String MOVIES_CACHE = "movies";
+    public static final String USERS_CACHE = "users";
+    public static final String FEEDS_CACHE = "feeds";
+    
+    @Bean
+    public CacheManager cacheManager(@Value("${movies.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${movies.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                                     @Value("${jwt.user-cache.maximum-size:10000}") long userCacheSize,
+                                     @Value("${jwt.user-cache.expire-after-write:30s}") Duration userCacheTtl,
+                                     @Value("${recommendations.feed.cache-size:20000}") long feedCacheSize,
+                                     @Value("${recommendations.feed.expire-after-access:6h}") Duration feedIdleTime) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        cacheManager.setCacheNames(List.of(MOVIES_CACHE));
+        // Short-lived so revoked or changed accounts take effect quickly even without an explicit eviction
+        cacheManager.registerCustomCache(USERS_CACHE, Caffeine.newBuilder()
+                .maximumSize(userCacheSize)
+                .expireAfterWrite(userCacheTtl)
+                .recordStats()
+                .build());
+        // Precomputed recommendation feeds of recently active users, see RecommendationService
+        cacheManager.registerCustomCache(FEEDS_CACHE, Caffeine.newBuilder()
+                .maximumSize(feedCacheSize)
+                .expireAfterAccess(feedIdleTime)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
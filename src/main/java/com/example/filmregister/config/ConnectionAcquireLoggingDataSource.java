@@ -0,0 +1,59 @@
+package com.example.filmregister.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Logs every connection checkout that waits longer than a threshold, together with
+ * the pool state at that moment. The acquire-time histogram (hikaricp.connections.acquire)
+ * shows how often this happens; the log shows when and what the pool looked like.
+ */
+@Slf4j
+class ConnectionAcquireLoggingDataSource extends DelegatingDataSource {
+    
+    private final HikariDataSource pool;
+    private final long thresholdNanos;
+    
+    ConnectionAcquireLoggingDataSource(HikariDataSource pool, Duration threshold) {
+        super(pool);
+        this.pool = pool;
+        this.thresholdNanos = threshold.toNanos();
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        logIfSlow(System.nanoTime() - start);
+        return connection;
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        logIfSlow(System.nanoTime() - start);
+        return connection;
+    }
+    
+    private void logIfSlow(long waitedNanos) {
+        if (waitedNanos < thresholdNanos) {
+            return;
+        }
+        HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+        if (stats != null) {
+            log.warn("Waited {} ms for a database connection - pool {}: {} active, {} idle, {} waiting, max {}",
+                    waitedNanos / 1_000_000, pool.getPoolName(), stats.getActiveConnections(),
+                    stats.getIdleConnections(), stats.getThreadsAwaitingConnection(), pool.getMaximumPoolSize());
+        } else {
+            log.warn("Waited {} ms for a database connection while pool {} was starting",
+                    waitedNanos / 1_000_000, pool.getPoolName());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.filmregister.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warns on startup when the connection pool does not fit the request concurrency:
+ * a pool larger than the request threads holds connections nothing can use, and
+ * far more request threads than connections means most requests queue for one.
+ * With virtual threads concurrency is unbounded, so the connection timeout decides
+ * how long a burst can queue.
+ */
+@Component
+@Slf4j
+public class ConnectionPoolSizeCheck {
+    
+    // Beyond this many request threads per connection most of them end up waiting
+    static final int MAX_THREADS_PER_CONNECTION = 10;
+    static final long MAX_VIRTUAL_THREAD_CONNECTION_TIMEOUT_MS = 5000;
+    
+    private final DataSource dataSource;
+    private final boolean virtualThreads;
+    private final int maxRequestThreads;
+    
+    public ConnectionPoolSizeCheck(DataSource dataSource,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                   @Value("${server.tomcat.threads.max:200}") int maxRequestThreads) {
+        this.dataSource = dataSource;
+        this.virtualThreads = virtualThreads;
+        this.maxRequestThreads = maxRequestThreads;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return;
+        }
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        log.info("Connection pool {} - {} connections, {} request threads",
+                pool.getPoolName(), pool.getMaximumPoolSize(), virtualThreads ? "virtual" : maxRequestThreads);
+        findMismatches(pool.getMaximumPoolSize(), pool.getConnectionTimeout(), virtualThreads, maxRequestThreads)
+                .forEach(log::warn);
+    }
+    
+    static List<String> findMismatches(int poolSize, long connectionTimeoutMs, boolean virtualThreads, int maxRequestThreads) {
+        List<String> warnings = new ArrayList<>();
+        if (virtualThreads) {
+            if (connectionTimeoutMs > MAX_VIRTUAL_THREAD_CONNECTION_TIMEOUT_MS) {
+                warnings.add("Virtual threads put no bound on concurrent requests, so bursts queue for the " + poolSize
+                        + " pooled connections for up to " + connectionTimeoutMs
+                        + " ms; consider a lower spring.datasource.hikari.connection-timeout");
+            }
+        } else if (poolSize > maxRequestThreads) {
+            warnings.add("Connection pool of " + poolSize + " exceeds the " + maxRequestThreads
+                    + " request threads; " + (poolSize - maxRequestThreads) + " connections can never be used");
+        } else if (maxRequestThreads > poolSize * MAX_THREADS_PER_CONNECTION) {
+            warnings.add(maxRequestThreads + " request threads share " + poolSize
+                    + " pooled connections; under load most requests will wait for a connection");
+        }
+        return warnings;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.filmregister.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Wraps the HikariCP pool so slow connection checkouts are logged. Pool sizing and
+ * timeouts are plain spring.datasource.hikari.* properties, set per profile; pool
+ * gauges and the acquire-time histogram are published by Actuator.
+ */
+@Configuration
+public class DataSourceConfig {
+    
+    // Static: post-processors are created before the beans they process
+    @Bean
+    public static BeanPostProcessor connectionAcquireLogging(
+            @Value("${datasource.slow-acquire-threshold:100ms}") Duration threshold) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool && !threshold.isZero()) {
+                    return new ConnectionAcquireLoggingDataSource(pool, threshold);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.filmregister.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves every id sequence past the highest id already in its table. Runs on startup,
+ * before the data initializers, so a database whose ids came from the former IDENTITY
+ * columns keeps working, and again after rows were inserted with explicit ids.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceSynchronizer implements CommandLineRunner {
+
+    // Must match the allocationSize of the entities' @SequenceGenerator
+    static final int ALLOCATION_SIZE = 50;
+
+    private static final List<String[]> TABLE_SEQUENCES = List.of(
+            new String[] {"users", "users_seq"},
+            new String[] {"movies", "movies_seq"},
+            new String[] {"reviews", "reviews_seq"},
+            new String[] {"watchlist", "watchlist_seq"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void run(String... args) {
+        synchronize();
+    }
+
+    public void synchronize() {
+        SequenceSupport sequenceSupport = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect()
+                .getSequenceSupport();
+
+        for (String[] tableSequence : TABLE_SEQUENCES) {
+            String table = tableSequence[0];
+            String sequence = tableSequence[1];
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            Long next = jdbcTemplate.queryForObject(sequenceSupport.getSequenceNextValString(sequence), Long.class);
+
+            // The pooled optimizer hands out the block ending at the value it fetches, and the
+            // next fetch returns next + ALLOCATION_SIZE, so ids from next + 1 on are free
+            if (next < maxId) {
+                long restartWith = maxId + ALLOCATION_SIZE + 1;
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+                log.info("Sequence {} restarted at {} past existing ids in {}", sequence, restartWith, table);
+            }
+        }
+    }
+}
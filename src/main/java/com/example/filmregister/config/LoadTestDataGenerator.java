@@ -0,0 +1,303 @@
+package com.example.filmregister.config;
+
+import com.example.filmregister.repository.MovieRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates a large synthetic dataset for load tests and benchmarks.
+ * <p>
+ * Popularity is Zipf-distributed on both sides: a few titles collect most of the
+ * reviews and watchlist entries, and a few heavy users write most of them. Each movie
+ * gets a hidden quality around which its ratings scatter, so averages differ between
+ * titles. Rows are written with JDBC batch inserts and explicit ids, and the rating
+ * aggregates are computed while generating instead of rebuilt afterwards.
+ * <p>
+ * Sizes are set under {@code loadtest.*}. Runs only against an empty database, so it
+ * should not be combined with the sample data profiles.
+ */
+@Component
+@Order(1)
+@Profile("loadtest")
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestDataGenerator implements CommandLineRunner {
+
+    private static final double MOVIE_POPULARITY_SKEW = 1.1;
+    private static final double USER_ACTIVITY_SKEW = 1.0;
+    // Stop drawing from the popularity distribution after this many repeats for one user
+    private static final int MAX_DUPLICATE_DRAWS = 20;
+
+    private static final String[] ADJECTIVES = {
+            "Silent", "Broken", "Golden", "Hidden", "Last", "Crimson", "Frozen", "Midnight",
+            "Lost", "Electric", "Wild", "Quiet", "Burning", "Distant", "Hollow", "Iron",
+            "Velvet", "Savage", "Bright", "Endless", "Fading", "Northern", "Paper", "Secret"
+    };
+    private static final String[] NOUNS = {
+            "River", "Empire", "Garden", "Signal", "Horizon", "Harbor", "Machine", "Kingdom",
+            "Orchard", "Station", "Mirror", "Voyage", "Frontier", "Lantern", "Archive", "Tide",
+            "Summer", "Witness", "Circus", "Island", "Letters", "Engine", "Shadow", "Crown"
+    };
+    private static final String[] DIRECTORS = {
+            "Christopher Nolan", "Greta Gerwig", "Denis Villeneuve", "Sofia Coppola", "Bong Joon-ho",
+            "Kathryn Bigelow", "Wes Anderson", "Jane Campion", "Alfonso Cuaron", "Chloe Zhao",
+            "Park Chan-wook", "Agnes Varda", "Ridley Scott", "Ava DuVernay", "Hirokazu Kore-eda"
+    };
+    private static final String[] ACTORS = {
+            "Tilda Swinton", "Mahershala Ali", "Saoirse Ronan", "Oscar Isaac", "Viola Davis",
+            "Song Kang-ho", "Florence Pugh", "Adam Driver", "Lupita Nyong'o", "Cillian Murphy",
+            "Penelope Cruz", "Riz Ahmed", "Frances McDormand", "Daniel Kaluuya", "Cate Blanchett"
+    };
+    private static final String[] GENRES = {
+            "Drama", "Comedy", "Thriller", "Sci-Fi", "Documentary", "Romance", "Horror",
+            "Animation", "Crime", "Fantasy", "Action", "Mystery"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MovieRepository movieRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final IdSequenceSynchronizer idSequenceSynchronizer;
+
+    @Value("${loadtest.users:10000}")
+    private int userCount;
+
+    @Value("${loadtest.movies:20000}")
+    private int movieCount;
+
+    @Value("${loadtest.reviews:1000000}")
+    private int reviewCount;
+
+    @Value("${loadtest.watchlist-entries:200000}")
+    private int watchlistCount;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    @Value("${loadtest.batch-size:5000}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        // Rows are written with explicit ids, so any existing content would collide
+        Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (movieRepository.count() > 0 || users > 0) {
+            log.info("Content already exists in database, skipping load test data generation");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+        // Popularity rank -> movie id, shuffled so popular titles are spread over the id range
+        int[] movieByRank = shuffledIds(movieCount, random);
+        ZipfSampler moviePopularity = new ZipfSampler(movieCount, MOVIE_POPULARITY_SKEW);
+        ZipfSampler userActivity = new ZipfSampler(userCount, USER_ACTIVITY_SKEW);
+
+        // Reviews are generated up front so each movie row can be written with its aggregates
+        int[][] reviews = generatePairs(reviewCount, userActivity, moviePopularity, movieByRank, random);
+        double[] quality = new double[movieCount + 1];
+        for (int movie = 1; movie <= movieCount; movie++) {
+            quality[movie] = 4.0 + random.nextDouble() * 5.0;
+        }
+        int[] ratings = new int[reviews[0].length];
+        long[] reviewCounts = new long[movieCount + 1];
+        long[] ratingSums = new long[movieCount + 1];
+        for (int i = 0; i < ratings.length; i++) {
+            int movie = reviews[1][i];
+            ratings[i] = (int) Math.max(1, Math.min(10, Math.round(quality[movie] + random.nextGaussian() * 1.5)));
+            reviewCounts[movie]++;
+            ratingSums[movie] += ratings[i];
+        }
+
+        insertUsers();
+        insertMovies(reviewCounts, ratingSums, random);
+        insertReviews(reviews, ratings, random);
+        int[][] watchlist = generatePairs(watchlistCount, userActivity, moviePopularity, movieByRank, random);
+        insertWatchlist(watchlist, random);
+        // Rows were inserted with explicit ids, so move the id sequences past them
+        idSequenceSynchronizer.synchronize();
+
+        log.info("Load test data generated in {} ms - {} users, {} movies, {} reviews, {} watchlist items",
+                System.currentTimeMillis() - start, userCount, movieCount, ratings.length, watchlist[0].length);
+    }
+
+    /**
+     * Draws distinct (user, movie) pairs: per-user counts follow the activity distribution
+     * and each user's movies follow the popularity distribution. Returns {users, movies}.
+     */
+    private int[][] generatePairs(int total, ZipfSampler userActivity, ZipfSampler moviePopularity,
+                                  int[] movieByRank, Random random) {
+        int[] perUser = new int[userCount + 1];
+        for (int i = 0; i < total; i++) {
+            perUser[userActivity.sample(random) + 1]++;
+        }
+
+        int maxPerUser = Math.max(1, movieCount / 2);
+        int size = 0;
+        for (int user = 1; user <= userCount; user++) {
+            perUser[user] = Math.min(perUser[user], maxPerUser);
+            size += perUser[user];
+        }
+
+        int[] users = new int[size];
+        int[] movies = new int[size];
+        int next = 0;
+        for (int user = 1; user <= userCount; user++) {
+            Set<Integer> seen = new HashSet<>(perUser[user] * 2);
+            int duplicates = 0;
+            while (seen.size() < perUser[user]) {
+                // Heavy users exhaust the popular titles; fall back to uniform picks for the rest
+                int movie = duplicates < MAX_DUPLICATE_DRAWS
+                        ? movieByRank[moviePopularity.sample(random)]
+                        : 1 + random.nextInt(movieCount);
+                if (seen.add(movie)) {
+                    users[next] = user;
+                    movies[next] = movie;
+                    next++;
+                    duplicates = 0;
+                } else {
+                    duplicates++;
+                }
+            }
+        }
+        return new int[][] {users, movies};
+    }
+
+    private void insertUsers() {
+        // Hashing is deliberately slow, so every generated user shares one hash
+        String password = passwordEncoder.encode("password123");
+        String sql = "INSERT INTO users (id, username, email, password, role, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int user = 1; user <= userCount; user++) {
+            rows.add(new Object[] {user, "loadtest_user_" + user, "loadtest_user_" + user + "@example.com",
+                    password, "USER", now});
+            flushIfFull(rows, sql);
+        }
+        flush(rows, sql);
+    }
+
+    private void insertMovies(long[] reviewCounts, long[] ratingSums, Random random) {
+        String sql = "INSERT INTO movies (id, title, description, release_year, genre, director, actors, type, " +
+                "seasons, episodes, imdb_rating, review_count, rating_sum, average_rating, created_by, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int movie = 1; movie <= movieCount; movie++) {
+            String title = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)];
+            if (movie > ADJECTIVES.length * NOUNS.length) {
+                title = title + " " + (movie / (ADJECTIVES.length * NOUNS.length) + 1);
+            }
+            String genre = GENRES[random.nextInt(GENRES.length)];
+            String director = DIRECTORS[random.nextInt(DIRECTORS.length)];
+            String actors = ACTORS[random.nextInt(ACTORS.length)] + ", " + ACTORS[random.nextInt(ACTORS.length)];
+            boolean series = random.nextInt(5) == 0;
+            Double imdbRating = random.nextInt(10) == 0 ? null : Math.round((1.0 + random.nextDouble() * 9.0) * 10) / 10.0;
+            double averageRating = reviewCounts[movie] > 0 ? (double) ratingSums[movie] / reviewCounts[movie] : 0.0;
+            Timestamp createdAt = daysAgo(random.nextInt(3 * 365));
+
+            rows.add(new Object[] {
+                    movie, title, "A " + genre.toLowerCase() + " by " + director + ".", 1950 + random.nextInt(75),
+                    genre, director, actors, series ? "TV_SERIES" : "MOVIE",
+                    series ? 1 + random.nextInt(8) : null, series ? 6 + random.nextInt(60) : null, imdbRating,
+                    reviewCounts[movie], ratingSums[movie], averageRating, "loadtest", createdAt, createdAt
+            });
+            flushIfFull(rows, sql);
+        }
+        flush(rows, sql);
+    }
+
+    private void insertReviews(int[][] reviews, int[] ratings, Random random) {
+        String sql = "INSERT INTO reviews (id, user_id, movie_id, rating, comment, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < ratings.length; i++) {
+            Timestamp createdAt = daysAgo(random.nextInt(2 * 365));
+            String comment = random.nextInt(3) == 0 ? null : "Generated review, rated " + ratings[i] + "/10.";
+            rows.add(new Object[] {i + 1, reviews[0][i], reviews[1][i], ratings[i], comment, createdAt, createdAt});
+            flushIfFull(rows, sql);
+        }
+        flush(rows, sql);
+    }
+
+    private void insertWatchlist(int[][] watchlist, Random random) {
+        String sql = "INSERT INTO watchlist (id, user_id, movie_id, added_at) VALUES (?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < watchlist[0].length; i++) {
+            rows.add(new Object[] {i + 1, watchlist[0][i], watchlist[1][i], daysAgo(random.nextInt(365))});
+            flushIfFull(rows, sql);
+        }
+        flush(rows, sql);
+    }
+
+    private void flushIfFull(List<Object[]> rows, String sql) {
+        if (rows.size() >= batchSize) {
+            flush(rows, sql);
+        }
+    }
+
+    private void flush(List<Object[]> rows, String sql) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+
+    private static Timestamp daysAgo(int days) {
+        return new Timestamp(System.currentTimeMillis() - days * 86_400_000L);
+    }
+
+    private static int[] shuffledIds(int count, Random random) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i + 1;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^skew,
+     * by binary search over the cumulative distribution.
+     */
+    private static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double skew) {
+            cumulative = new double[n];
+            double sum = 0.0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, skew);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            int rank = index >= 0 ? index : -index - 1;
+            return Math.min(rank, cumulative.length - 1);
+        }
+    }
+}
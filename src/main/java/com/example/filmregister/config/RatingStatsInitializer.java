@@ -0,0 +1,30 @@
+package com.example.filmregister.config;
+
+import com.example.filmregister.repository.MovieRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the per-movie rating aggregates from the reviews table on startup.
+ * Enable with {@code ratings.rebuild-on-startup=true} once after upgrading a database
+ * that already contains reviews, or after reviews were written outside ReviewService.
+ */
+@Component
+@Order(4)
+@ConditionalOnProperty(name = "ratings.rebuild-on-startup", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class RatingStatsInitializer implements CommandLineRunner {
+
+    private final MovieRepository movieRepository;
+
+    @Override
+    public void run(String... args) {
+        int updated = movieRepository.recalculateRatingStats();
+        log.info("Rating aggregates rebuilt for {} movies", updated);
+    }
+}
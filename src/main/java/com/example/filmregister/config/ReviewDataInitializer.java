@@ -34,6 +34,8 @@ public class ReviewDataInitializer implements CommandLineRunner {
         // Create sample reviews and watchlists if database is empty
         if (reviewRepository.count() == 0) {
             createSampleReviews();
+            // Sample reviews bypass ReviewService, so rebuild the movie rating aggregates
+            movieRepository.recalculateRatingStats();
             log.info("Sample reviews created successfully - {} reviews loaded", reviewRepository.count());
         } else {
             log.info("Reviews already exist in database ({} reviews), skipping review initialization", reviewRepository.count());
@@ -0,0 +1,13 @@
+package com.example.filmregister.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs. They run on the auto-configured task
+ * scheduler, which uses virtual threads in the {@code vthreads} profile.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
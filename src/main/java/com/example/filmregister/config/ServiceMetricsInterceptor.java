@@ -0,0 +1,76 @@
+package com.example.filmregister.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Times a service method call as {@code service.method}, tagged with the class, method,
+ * outcome and exception, plus the route that triggered it. The route is the matched
+ * mapping pattern, so ids in the path do not multiply the number of time series;
+ * calls made outside a request (startup, scheduled or async work) are tagged "none".
+ */
+class ServiceMetricsInterceptor implements MethodInterceptor {
+    
+    static final String METRIC_NAME = "service.method";
+    
+    // Resolved on first call; advisors are created before the registry exists
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private volatile MeterRegistry registry;
+    
+    ServiceMetricsInterceptor(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MeterRegistry registry = this.registry;
+        if (registry == null) {
+            registry = registryProvider.getIfAvailable();
+            if (registry == null) {
+                return invocation.proceed();
+            }
+            this.registry = registry;
+        }
+        
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return invocation.proceed();
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            Class<?> target = invocation.getThis() != null
+                    ? AopUtils.getTargetClass(invocation.getThis())
+                    : invocation.getMethod().getDeclaringClass();
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .tag("class", target.getSimpleName())
+                    .tag("method", invocation.getMethod().getName())
+                    .tag("endpoint", currentEndpoint())
+                    .tag("outcome", "none".equals(exception) ? "success" : "error")
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+    
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return "none";
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (pattern == null) {
+            return "none";
+        }
+        return servletAttributes.getRequest().getMethod() + " " + pattern;
+    }
+}
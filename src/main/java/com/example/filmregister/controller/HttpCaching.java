@@ -0,0 +1,99 @@
+package com.example.filmregister.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for the public read endpoints. ETags are weak and derived
+ * from the state a response is built from rather than from its bytes, so a matching
+ * If-None-Match is answered with 304 before the body is loaded or serialized.
+ */
+@Component
+class HttpCaching {
+    
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    private final CacheControl cacheControl;
+    
+    HttpCaching(@Value("${http.cache.max-age:0s}") Duration maxAge,
+                @Value("${http.cache.shared-max-age:60s}") Duration sharedMaxAge) {
+        // Clients revalidate with cheap conditional requests; a CDN may serve its copy for shared-max-age
+        this.cacheControl = CacheControl.maxAge(maxAge).sMaxAge(sharedMaxAge).cachePublic();
+    }
+    
+    <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        // checkNotModified sets the ETag header and, on a match, the 304 status itself
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(body.get());
+    }
+    
+    /**
+     * Whether an Accept-Encoding header allows gzip: listed with a non-zero q-value, or
+     * covered by a non-zero {@code *} when gzip itself is not listed. Elements with an
+     * unreadable q-value are ignored.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] params = element.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            Double quality = quality(params);
+            if (quality == null) {
+                continue;
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        Double effective = gzip != null ? gzip : wildcard;
+        return effective != null && effective > 0;
+    }
+    
+    // q defaults to 1 when absent; null when present but not a number
+    private static Double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.length() > 1 && Character.toLowerCase(param.charAt(0)) == 'q' && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return 1.0;
+    }
+    
+    /**
+     * Weak ETag over the given values, a 64-bit FNV-1a hash of their string forms.
+     */
+    static String etag(Object... parts) {
+        long hash = FNV_OFFSET_BASIS;
+        for (Object part : parts) {
+            String value = String.valueOf(part);
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+            // Separator, so ("ab", "c") and ("a", "bc") differ
+            hash = (hash ^ 0x1f) * FNV_PRIME;
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+}
@@ -1,19 +1,35 @@
 package com.example.filmregister.controller;
 
+import com.example.filmregister.dto.request.MoviePatchRequest;
 import com.example.filmregister.dto.request.MovieRequest;
+import com.example.filmregister.dto.response.CursorPageResponse;
+import com.example.filmregister.dto.response.LeaderboardEntryResponse;
+import com.example.filmregister.dto.response.MovieCardResponse;
 import com.example.filmregister.dto.response.MessageResponse;
+import com.example.filmregister.dto.response.MovieImportResponse;
 import com.example.filmregister.dto.response.MovieResponse;
+import com.example.filmregister.dto.response.MovieSuggestionResponse;
 import com.example.filmregister.entity.MovieType;
+import com.example.filmregister.service.MovieExportService;
+import com.example.filmregister.service.MovieImportService;
 import com.example.filmregister.service.MovieService;
+import com.example.filmregister.service.MovieView;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -23,52 +39,168 @@ import java.util.List;
 public class MovieController {
     
     private final MovieService movieService;
+    private final MovieImportService movieImportService;
+    private final MovieExportService movieExportService;
+    private final HttpCaching httpCaching;
     
     @PostMapping
     @Operation(summary = "Create a new movie", description = "Creates a new movie (requires authentication)", 
                security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<MovieResponse> createMovie(@Valid @RequestBody MovieRequest request, 
-                                                      org.springframework.security.core.Authentication authentication) {
+    public ResponseEntity<MovieResponse> createMovie(@Valid @RequestBody MovieRequest request,
+                                                      Authentication authentication) {
         MovieResponse response = movieService.createMovie(request, authentication.getName());
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Import movies from JSON", description = "Streams a JSON array of movies, upserting by imdbId " +
+               "and committing in chunks. Reports the rows that failed (requires authentication)",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<MovieImportResponse> importMoviesJson(InputStream body,
+                                                                Authentication authentication) {
+        MovieImportResponse response = movieImportService.importJson(body, authentication.getName());
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @Operation(summary = "Import movies from CSV", description = "Streams CSV with a header row of movie field names, " +
+               "upserting by imdbId and committing in chunks. Reports the rows that failed (requires authentication)",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<MovieImportResponse> importMoviesCsv(InputStream body,
+                                                               Authentication authentication) {
+        MovieImportResponse response = movieImportService.importCsv(body, authentication.getName());
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/{id}")
-    @Operation(summary = "Get movie by ID", description = "Retrieves movie details by ID (public endpoint)")
-    public ResponseEntity<MovieResponse> getMovie(@PathVariable Long id) {
+    @Operation(summary = "Get movie by ID", description = "Retrieves movie details by ID. Supports If-None-Match (public endpoint)")
+    public ResponseEntity<MovieResponse> getMovie(@PathVariable Long id, WebRequest webRequest) {
+        // Served from the movie cache, so a revalidation costs no query
         MovieResponse response = movieService.getMovie(id);
-        return ResponseEntity.ok(response);
+        return httpCaching.conditional(webRequest, etag(response), () -> response);
     }
     
     @GetMapping
-    @Operation(summary = "Get all movies", description = "Retrieves all movies with optional filtering by type and sorting (public endpoint)")
-    public ResponseEntity<List<MovieResponse>> getAllMovies(
+    @Operation(summary = "Get movies", description = "Retrieves a page of movies with optional filtering by type and sorting. " +
+               "Pass the returned nextCursor as cursor to fetch the following page. view=card returns compact " +
+               "listing entries without description, cast and audit fields (public endpoint)")
+    public ResponseEntity<CursorPageResponse<?>> getAllMovies(
             @RequestParam(required = false) MovieType type,
-            @RequestParam(required = false) String sort) {
-        List<MovieResponse> response;
-        if (type != null) {
-            response = movieService.getMoviesByType(type, sort);
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int limit,
+            @RequestParam(required = false) String view,
+            WebRequest webRequest) {
+        List<Object> parts = new ArrayList<>();
+        CursorPageResponse<?> response;
+        if (MovieView.from(view) == MovieView.CARD) {
+            CursorPageResponse<MovieCardResponse> cards = movieService.getMovieCardsPage(type, sort, cursor, limit);
+            // A card page and a full page are different representations and must not share a tag
+            parts.add(MovieView.CARD);
+            cards.getItems().forEach(card -> parts.add(etag(card)));
+            response = cards;
         } else {
-            response = movieService.getAllMoviesSorted(sort);
+            CursorPageResponse<MovieResponse> movies = movieService.getMoviesPage(type, sort, cursor, limit);
+            movies.getItems().forEach(movie -> parts.add(etag(movie)));
+            response = movies;
         }
-        return ResponseEntity.ok(response);
+        parts.add(response.getNextCursor());
+        return httpCaching.conditional(webRequest, HttpCaching.etag(parts.toArray()), () -> response);
+    }
+    
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export movies", description = "Streams the whole catalog with rating aggregates as " +
+               "newline-delimited JSON, gzip-compressed when the client accepts it. Answers 429 while too " +
+               "many exports are running (public endpoint)")
+    public ResponseEntity<StreamingResponseBody> exportMovies(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = HttpCaching.acceptsGzip(acceptEncoding);
+        movieExportService.acquireSlot();
+        // The body is written later on another thread, which hands the slot back when it is done
+        StreamingResponseBody body = out -> {
+            try {
+                movieExportService.exportNdjson(out, gzip);
+            } finally {
+                movieExportService.releaseSlot();
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"movies.ndjson\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Search movies", description = "Search movies by keyword in title, description, director, or genre (public endpoint)")
-    public ResponseEntity<List<MovieResponse>> searchMovies(@RequestParam String keyword) {
-        List<MovieResponse> response = movieService.searchMovies(keyword);
+    @Operation(summary = "Search movies", description = "Search movies by keyword in title, description, director, actors, or genre, " +
+               "best matches first. view=card returns compact listing entries (public endpoint)")
+    public ResponseEntity<List<?>> searchMovies(@RequestParam String keyword,
+                                                @RequestParam(required = false) String view) {
+        List<?> response = MovieView.from(view) == MovieView.CARD
+                ? movieService.searchMovieCards(keyword)
+                : movieService.searchMovies(keyword);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest movies", description = "Search-as-you-type suggestions by title, director, actors or genre. " +
+               "Tolerates a partially typed last word and small typos (public endpoint)")
+    public ResponseEntity<List<MovieSuggestionResponse>> suggestMovies(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        List<MovieSuggestionResponse> response = movieService.suggestMovies(q, limit);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/top")
+    @Operation(summary = "Get top rated movies", description = "Movies by Bayesian average rating, which weighs each " +
+               "movie's reviews against the catalog mean so titles with a few reviews don't dominate (public endpoint)")
+    public ResponseEntity<List<LeaderboardEntryResponse>> getTopMovies(@RequestParam(defaultValue = "20") int limit) {
+        List<LeaderboardEntryResponse> response = movieService.getTopMovies(limit);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/trending")
+    @Operation(summary = "Get trending movies", description = "Movies by recent reviews and watchlist additions, " +
+               "older activity counting less (public endpoint)")
+    public ResponseEntity<List<LeaderboardEntryResponse>> getTrendingMovies(@RequestParam(defaultValue = "20") int limit) {
+        List<LeaderboardEntryResponse> response = movieService.getTrendingMovies(limit);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/{id}/similar")
+    @Operation(summary = "Get similar movies", description = "Movies that people who liked this one also liked, " +
+               "from review and watchlist co-occurrence, most similar first (public endpoint)")
+    public ResponseEntity<List<MovieCardResponse>> getSimilarMovies(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<MovieCardResponse> response = movieService.getSimilarMovies(id, limit);
         return ResponseEntity.ok(response);
     }
     
     @PutMapping("/{id}")
-    @Operation(summary = "Update movie", description = "Updates an existing movie (requires authentication)", 
+    @Operation(summary = "Update movie", description = "Updates an existing movie. The version last read is required; " +
+               "the update is rejected with 409 if someone else changed the movie meanwhile (requires authentication)",
                security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<MovieResponse> updateMovie(@PathVariable Long id, @Valid @RequestBody MovieRequest request) {
         MovieResponse response = movieService.updateMovie(id, request);
         return ResponseEntity.ok(response);
     }
     
+    @PatchMapping("/{id}")
+    @Operation(summary = "Partially update movie", description = "Changes only the fields present in the body. " +
+               "The version last read is required; the update is rejected with 409 if someone else changed the movie " +
+               "meanwhile (requires authentication)",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<MovieResponse> patchMovie(@PathVariable Long id, @Valid @RequestBody MoviePatchRequest request) {
+        MovieResponse response = movieService.patchMovie(id, request);
+        return ResponseEntity.ok(response);
+    }
+    
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete movie", description = "Deletes a movie (requires authentication)", 
                security = @SecurityRequirement(name = "bearerAuth"))
@@ -76,4 +208,13 @@ public class MovieController {
         movieService.deleteMovie(id);
         return ResponseEntity.ok(new MessageResponse("Movie deleted successfully"));
     }
+    
+    // Review changes bump the aggregates but not the version, so both are part of the tag
+    private static String etag(MovieResponse movie) {
+        return HttpCaching.etag(movie.getId(), movie.getVersion(), movie.getReviewCount(), movie.getAverageRating());
+    }
+    
+    private static String etag(MovieCardResponse card) {
+        return HttpCaching.etag(card.getId(), card.getVersion(), card.getReviewCount(), card.getAverageRating());
+    }
 }
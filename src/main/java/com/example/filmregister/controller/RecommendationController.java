@@ -0,0 +1,34 @@
+package com.example.filmregister.controller;
+
+import com.example.filmregister.dto.response.MovieCardResponse;
+import com.example.filmregister.security.UserDetailsImpl;
+import com.example.filmregister.service.RecommendationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/users/me")
+@RequiredArgsConstructor
+@Tag(name = "Recommendations", description = "Personal movie recommendation endpoints")
+public class RecommendationController {
+    
+    private final RecommendationService recommendationService;
+    
+    @GetMapping("/recommendations")
+    @Operation(summary = "Get my recommendations", description = "Movies picked for you from your reviews, " +
+               "watchlist, favourite genres and directors and overall popularity, at most 50. Computed in the " +
+               "background; until yours is ready, popular movies are returned (requires authentication)", 
+               security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<List<MovieCardResponse>> getMyRecommendations(
+            @AuthenticationPrincipal UserDetailsImpl principal,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(recommendationService.getRecommendations(principal.getId(), limit));
+    }
+}
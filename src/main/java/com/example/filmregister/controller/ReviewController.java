@@ -1,8 +1,10 @@
 package com.example.filmregister.controller;
 
+import com.example.filmregister.dto.request.ReviewPatchRequest;
 import com.example.filmregister.dto.request.ReviewRequest;
 import com.example.filmregister.dto.response.MessageResponse;
 import com.example.filmregister.dto.response.ReviewResponse;
+import com.example.filmregister.security.UserDetailsImpl;
 import com.example.filmregister.service.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -11,8 +13,9 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,6 +26,7 @@ import java.util.List;
 public class ReviewController {
     
     private final ReviewService reviewService;
+    private final HttpCaching httpCaching;
     
     @PostMapping("/movies/{movieId}/reviews")
     @Operation(summary = "Add a review", description = "Add a review for a movie (requires authentication, one review per user per movie)", 
@@ -30,19 +34,33 @@ public class ReviewController {
     public ResponseEntity<ReviewResponse> addReview(
             @PathVariable Long movieId,
             @Valid @RequestBody ReviewRequest request,
-            Authentication authentication) {
-        ReviewResponse response = reviewService.addReview(movieId, request, authentication.getName());
+            @AuthenticationPrincipal UserDetailsImpl principal) {
+        ReviewResponse response = reviewService.addReview(movieId, request, principal.getId());
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
     @PutMapping("/reviews/{reviewId}")
-    @Operation(summary = "Update a review", description = "Update your own review (requires authentication)", 
+    @Operation(summary = "Update a review", description = "Update your own review. The version last read is required; " +
+               "the update is rejected with 409 if the review changed meanwhile (requires authentication)",
                security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<ReviewResponse> updateReview(
             @PathVariable Long reviewId,
             @Valid @RequestBody ReviewRequest request,
-            Authentication authentication) {
-        ReviewResponse response = reviewService.updateReview(reviewId, request, authentication.getName());
+            @AuthenticationPrincipal UserDetailsImpl principal) {
+        ReviewResponse response = reviewService.updateReview(reviewId, request, principal.getId());
+        return ResponseEntity.ok(response);
+    }
+    
+    @PatchMapping("/reviews/{reviewId}")
+    @Operation(summary = "Partially update a review", description = "Change the rating or comment of your own review. " +
+               "The version last read is required; the update is rejected with 409 if the review changed meanwhile " +
+               "(requires authentication)",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ReviewResponse> patchReview(
+            @PathVariable Long reviewId,
+            @Valid @RequestBody ReviewPatchRequest request,
+            @AuthenticationPrincipal UserDetailsImpl principal) {
+        ReviewResponse response = reviewService.patchReview(reviewId, request, principal.getId());
         return ResponseEntity.ok(response);
     }
     
@@ -51,23 +69,36 @@ public class ReviewController {
                security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<MessageResponse> deleteReview(
             @PathVariable Long reviewId,
-            Authentication authentication) {
-        reviewService.deleteReview(reviewId, authentication.getName());
+            @AuthenticationPrincipal UserDetailsImpl principal) {
+        reviewService.deleteReview(reviewId, principal.getId());
         return ResponseEntity.ok(new MessageResponse("Review deleted successfully"));
     }
     
     @GetMapping("/movies/{movieId}/reviews")
-    @Operation(summary = "Get movie reviews", description = "Get all reviews for a movie (public endpoint)")
-    public ResponseEntity<List<ReviewResponse>> getMovieReviews(@PathVariable Long movieId) {
-        List<ReviewResponse> response = reviewService.getMovieReviews(movieId);
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Get movie reviews", description = "Get reviews for a movie, all of them unless page or size is given. " +
+               "Supports If-None-Match (public endpoint)")
+    public ResponseEntity<List<ReviewResponse>> getMovieReviews(
+            @PathVariable Long movieId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        // Checked against a one-row version query before the reviews themselves are loaded
+        String version = reviewService.getMovieReviewsVersion(movieId);
+        if (version == null) {
+            return ResponseEntity.ok(reviewService.getMovieReviews(movieId, page, size));
+        }
+        return httpCaching.conditional(webRequest, HttpCaching.etag(version),
+                () -> reviewService.getMovieReviews(movieId, page, size));
     }
     
     @GetMapping("/users/me/reviews")
-    @Operation(summary = "Get my reviews", description = "Get all reviews by authenticated user (requires authentication)", 
+    @Operation(summary = "Get my reviews", description = "Get reviews by authenticated user, all of them unless page or size is given (requires authentication)", 
                security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<ReviewResponse>> getMyReviews(Authentication authentication) {
-        List<ReviewResponse> response = reviewService.getUserReviews(authentication.getName());
+    public ResponseEntity<List<ReviewResponse>> getMyReviews(
+            @AuthenticationPrincipal UserDetailsImpl principal,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        List<ReviewResponse> response = reviewService.getUserReviews(principal.getId(), page, size);
         return ResponseEntity.ok(response);
     }
 }
@@ -2,6 +2,8 @@ package com.example.filmregister.controller;
 
 import com.example.filmregister.dto.response.MessageResponse;
 import com.example.filmregister.dto.response.WatchlistResponse;
+import com.example.filmregister.security.UserDetailsImpl;
+import com.example.filmregister.service.MovieView;
 import com.example.filmregister.service.WatchlistService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -9,7 +11,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -27,8 +29,8 @@ public class WatchlistController {
                security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<WatchlistResponse> addToWatchlist(
             @PathVariable Long movieId,
-            Authentication authentication) {
-        WatchlistResponse response = watchlistService.addToWatchlist(movieId, authentication.getName());
+            @AuthenticationPrincipal UserDetailsImpl principal) {
+        WatchlistResponse response = watchlistService.addToWatchlist(movieId, principal.getId());
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
@@ -37,16 +39,23 @@ public class WatchlistController {
                security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<MessageResponse> removeFromWatchlist(
             @PathVariable Long movieId,
-            Authentication authentication) {
-        watchlistService.removeFromWatchlist(movieId, authentication.getName());
+            @AuthenticationPrincipal UserDetailsImpl principal) {
+        watchlistService.removeFromWatchlist(movieId, principal.getId());
         return ResponseEntity.ok(new MessageResponse("Movie removed from watchlist"));
     }
     
     @GetMapping
-    @Operation(summary = "Get my watchlist", description = "Get your watchlist (requires authentication)", 
+    @Operation(summary = "Get my watchlist", description = "Get your watchlist, all of it unless page or size is given. " +
+               "view=card embeds compact movie entries instead of full movies (requires authentication)", 
                security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<List<WatchlistResponse>> getWatchlist(Authentication authentication) {
-        List<WatchlistResponse> response = watchlistService.getWatchlist(authentication.getName());
+    public ResponseEntity<List<?>> getWatchlist(
+            @AuthenticationPrincipal UserDetailsImpl principal,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
+        List<?> response = MovieView.from(view) == MovieView.CARD
+                ? watchlistService.getWatchlistCards(principal.getId(), page, size)
+                : watchlistService.getWatchlist(principal.getId(), page, size);
         return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,46 @@
+package com.example.filmregister.dto.request;
+
+import com.example.filmregister.entity.MovieType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial movie update: only the fields present are changed, a null field is left as is.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoviePatchRequest {
+    
+    @Pattern(regexp = "(?s).*\\S.*", message = "Title must not be blank")
+    private String title;
+    
+    private String description;
+    
+    private Integer releaseYear;
+    
+    private String genre;
+    
+    private String director;
+    
+    private String imageUrl;
+    
+    private String actors;
+    
+    private MovieType type;
+    
+    private Integer seasons;
+    
+    private Integer episodes;
+    
+    private String imdbId;
+    
+    private Double imdbRating;
+    
+    // Version the client last read; the update is rejected with 409 if the movie has moved on
+    @NotNull(message = "Version is required")
+    private Long version;
+}
@@ -35,4 +35,8 @@ public class MovieRequest {
     private String imdbId;
     
     private Double imdbRating;
+    
+    // Version the client last read, required on update and ignored on create; the update is
+    // rejected with 409 if the movie has moved on
+    private Long version;
 }
@@ -0,0 +1,27 @@
+package com.example.filmregister.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial review update: only the fields present are changed, a null field is left as is.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewPatchRequest {
+    
+    @Min(value = 1, message = "Rating must be at least 1")
+    @Max(value = 10, message = "Rating must be at most 10")
+    private Integer rating;
+    
+    private String comment;
+    
+    // Version the client last read; the update is rejected with 409 if the review has moved on
+    @NotNull(message = "Version is required")
+    private Long version;
+}
@@ -18,4 +18,8 @@ public class ReviewRequest {
     private Integer rating;
     
     private String comment;
+    
+    // Version the client last read, required on update and ignored on create; the update is
+    // rejected with 409 if the review has moved on
+    private Long version;
 }
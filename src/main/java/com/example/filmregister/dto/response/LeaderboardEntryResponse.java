@@ -0,0 +1,14 @@
+package com.example.filmregister.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+    private int rank;
+    private double score;
+    private MovieCardResponse movie;
+}
@@ -0,0 +1,21 @@
+package com.example.filmregister.dto.response;
+
+import com.example.filmregister.entity.MovieType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieCardResponse {
+    private Long id;
+    private String title;
+    private Integer releaseYear;
+    private MovieType type;
+    private String imageUrl;
+    private Double imdbRating;
+    private Double averageRating;
+    private Long reviewCount;
+    private Long version;
+}
@@ -0,0 +1,15 @@
+package com.example.filmregister.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieImportError {
+    // 1-based position of the record in the body; null when the body itself is unreadable
+    private Integer row;
+    private String imdbId;
+    private String message;
+}
@@ -0,0 +1,22 @@
+package com.example.filmregister.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieImportResponse {
+    private int processed;
+    private int created;
+    private int updated;
+    private int failed;
+    // False when reading stopped early at a malformed body; earlier chunks stay committed
+    private boolean completed = true;
+    // Capped at movies.import.max-reported-errors, see failed for the full count
+    private List<MovieImportError> errors = new ArrayList<>();
+}
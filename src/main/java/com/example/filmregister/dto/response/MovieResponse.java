@@ -29,4 +29,5 @@ public class MovieResponse {
     private LocalDateTime updatedAt;
     private Double averageRating;
     private Long reviewCount;
+    private Long version;
 }
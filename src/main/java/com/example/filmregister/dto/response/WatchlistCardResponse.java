@@ -0,0 +1,16 @@
+package com.example.filmregister.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatchlistCardResponse {
+    private Long id;
+    private MovieCardResponse movie;
+    private LocalDateTime addedAt;
+}
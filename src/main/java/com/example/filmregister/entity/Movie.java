@@ -4,18 +4,35 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "movies")
+@Table(name = "movies", indexes = {
+    // Keyset indexes for the catalog sort modes (see MovieRepository.findCardPageBy*): the
+    // type-first ones serve a filtered listing, the others the full catalog (id order uses the key)
+    @Index(name = "idx_movies_type_id", columnList = "type, id"),
+    @Index(name = "idx_movies_type_average_rating", columnList = "type, average_rating DESC, id"),
+    @Index(name = "idx_movies_type_review_count", columnList = "type, review_count DESC, id"),
+    @Index(name = "idx_movies_type_imdb_rating", columnList = "type, imdb_rating DESC, id"),
+    @Index(name = "idx_movies_average_rating", columnList = "average_rating DESC, id"),
+    @Index(name = "idx_movies_review_count", columnList = "review_count DESC, id"),
+    @Index(name = "idx_movies_imdb_rating", columnList = "imdb_rating DESC, id"),
+    // Upsert lookups of the bulk import
+    @Index(name = "idx_movies_imdb_id", columnList = "imdb_id")
+})
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Movie {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movies_seq")
+    @SequenceGenerator(name = "movies_seq", sequenceName = "movies_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -51,6 +68,20 @@ public class Movie {
     @Column(name = "imdb_rating")
     private Double imdbRating;
     
+    // Rating aggregates are maintained by MovieRepository.applyRatingDelta,
+    // never written through the entity (see @DynamicUpdate)
+    @ColumnDefault("0")
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount = 0L;
+    
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+    
+    @ColumnDefault("0")
+    @Column(name = "average_rating", nullable = false)
+    private Double averageRating = 0.0;
+    
     @Column(name = "created_by")
     private String createdBy;
     
@@ -60,6 +91,13 @@ public class Movie {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Optimistic lock for edits. Left null on new movies so Spring Data persists them;
+    // the rating aggregate updates deliberately do not bump it.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
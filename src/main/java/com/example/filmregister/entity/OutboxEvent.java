@@ -0,0 +1,48 @@
+package com.example.filmregister.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * A domain event written in the transaction that caused it and deleted once delivered,
+ * so events of a crashed or overloaded instance are delivered later instead of lost.
+ * One that still has not reached every listener after the allowed redeliveries is parked:
+ * kept for inspection, but no longer redelivered.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_events_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(nullable = false, length = 64)
+    private String type;
+    
+    // JSON of the event; an import chunk's id list can run long
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    // Times redelivery has queued the event again
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+}
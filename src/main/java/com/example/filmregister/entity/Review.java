@@ -4,20 +4,33 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "reviews", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"user_id", "movie_id"})
+    @UniqueConstraint(name = Review.USER_MOVIE_CONSTRAINT, columnNames = {"user_id", "movie_id"})
+}, indexes = {
+    // Lookups by user are served by the unique (user_id, movie_id) constraint. The
+    // trailing updated_at answers the listing's latest-change probe from the index.
+    @Index(name = "idx_reviews_movie_id_updated_at", columnList = "movie_id, updated_at"),
+    // Range scans of recent reviews for the trending leaderboard
+    @Index(name = "idx_reviews_created_at", columnList = "created_at")
 })
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Review {
     
+    // One review per user and movie; named so a duplicate can be told from other failures
+    public static final String USER_MOVIE_CONSTRAINT = "uk_reviews_user_movie";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reviews_seq")
+    @SequenceGenerator(name = "reviews_seq", sequenceName = "reviews_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -40,6 +53,12 @@ public class Review {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Optimistic lock for edits, left null on new reviews so Spring Data persists them
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -9,15 +9,24 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "watchlist", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"user_id", "movie_id"})
+    @UniqueConstraint(name = Watchlist.USER_MOVIE_CONSTRAINT, columnNames = {"user_id", "movie_id"})
+}, indexes = {
+    // Lookups by user are served by the unique constraint; this one serves reloads by movie
+    @Index(name = "idx_watchlist_movie_id", columnList = "movie_id"),
+    // Range scans of recent additions for the trending leaderboard
+    @Index(name = "idx_watchlist_added_at", columnList = "added_at")
 })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Watchlist {
     
+    // One entry per user and movie; named so a duplicate can be told from other failures
+    public static final String USER_MOVIE_CONSTRAINT = "uk_watchlist_user_movie";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "watchlist_seq")
+    @SequenceGenerator(name = "watchlist_seq", sequenceName = "watchlist_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,37 @@
+package com.example.filmregister.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * A committed change to reviews, watchlists or the catalog, delivered after commit to
+ * the in-memory structures derived from them. Of the catalog only deletions are events:
+ * nothing derived from reviews and watchlists depends on a movie's other columns.
+ * Events carry what their consumers need, so handling one does not require reading the
+ * changed rows back.
+ */
+public sealed interface DomainEvent {
+    
+    LocalDateTime occurredAt();
+    
+    record ReviewCreated(Long reviewId, Long movieId, Long userId, int rating,
+                         LocalDateTime occurredAt) implements DomainEvent {
+    }
+    
+    record ReviewUpdated(Long reviewId, Long movieId, Long userId, int previousRating, int rating,
+                         LocalDateTime occurredAt) implements DomainEvent {
+    }
+    
+    // Carries the review's creation time so activity counted for it can be taken back
+    record ReviewDeleted(Long reviewId, Long movieId, Long userId, int rating, LocalDateTime reviewCreatedAt,
+                         LocalDateTime occurredAt) implements DomainEvent {
+    }
+    
+    record WatchlistAdded(Long movieId, Long userId, LocalDateTime occurredAt) implements DomainEvent {
+    }
+    
+    record WatchlistRemoved(Long movieId, Long userId, LocalDateTime occurredAt) implements DomainEvent {
+    }
+    
+    record MovieDeleted(Long movieId, LocalDateTime occurredAt) implements DomainEvent {
+    }
+}
@@ -2,13 +2,22 @@ package com.example.filmregister.repository;
 
 import com.example.filmregister.entity.Movie;
 import com.example.filmregister.entity.MovieType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Long> {
@@ -25,4 +34,162 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
     List<Movie> findByReleaseYear(Integer releaseYear);
     List<Movie> findByType(MovieType type);
     Optional<Movie> findByTitle(String title);
+    List<Movie> findByImdbIdIn(Collection<String> imdbIds);
+    
+    // Batches of the whole catalog in id order, for rebuilding in-memory indexes
+    List<Movie> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+    
+    // Select list of a MovieCard for a movie aliased m; shared with the watchlist
+    String CARD_COLUMNS = "m.id AS id, m.title AS title, m.releaseYear AS releaseYear, m.type AS type, " +
+            "m.imageUrl AS imageUrl, m.imdbRating AS imdbRating, m.averageRating AS averageRating, " +
+            "m.reviewCount AS reviewCount, m.version AS version";
+    
+    // Keyset pages of the catalog, read as cards; full listings load the movies of a page by id.
+    // Each query resumes strictly after (sort key, id); the leading "key <= :after" bound lets
+    // the index seek straight to the cursor. Every sort mode comes twice: filtered by type,
+    // served by the (type, key, id) indexes, and unfiltered, served by the (key, id) ones, so
+    // the full catalog never has to merge the per-type ranges of an index.
+    String CARD_PAGE = "SELECT " + CARD_COLUMNS + " FROM Movie m WHERE ";
+    String OF_TYPE = "m.type = :type AND ";
+    String BY_ID = "m.id > :afterId ORDER BY m.id";
+    String BY_AVERAGE_RATING = "m.averageRating <= :afterRating " +
+            "AND (m.averageRating < :afterRating OR m.id > :afterId) ORDER BY m.averageRating DESC, m.id";
+    String BY_REVIEW_COUNT = "m.reviewCount <= :afterCount " +
+            "AND (m.reviewCount < :afterCount OR m.id > :afterId) ORDER BY m.reviewCount DESC, m.id";
+    // IMDB ratings are optional: rated titles come first, then unrated ones by id
+    String BY_IMDB_RATING = "m.imdbRating IS NOT NULL AND m.imdbRating <= :afterRating " +
+            "AND (m.imdbRating < :afterRating OR m.id > :afterId) ORDER BY m.imdbRating DESC, m.id";
+    String WITHOUT_IMDB_RATING = "m.imdbRating IS NULL AND m.id > :afterId ORDER BY m.id";
+    
+    @Query(CARD_PAGE + BY_ID)
+    List<MovieCard> findCardPageById(@Param("afterId") long afterId, Pageable pageable);
+    
+    @Query(CARD_PAGE + OF_TYPE + BY_ID)
+    List<MovieCard> findCardPageById(@Param("type") MovieType type,
+                                     @Param("afterId") long afterId,
+                                     Pageable pageable);
+    
+    @Query(CARD_PAGE + BY_AVERAGE_RATING)
+    List<MovieCard> findCardPageByAverageRating(@Param("afterRating") double afterRating,
+                                                @Param("afterId") long afterId,
+                                                Pageable pageable);
+    
+    @Query(CARD_PAGE + OF_TYPE + BY_AVERAGE_RATING)
+    List<MovieCard> findCardPageByAverageRating(@Param("type") MovieType type,
+                                                @Param("afterRating") double afterRating,
+                                                @Param("afterId") long afterId,
+                                                Pageable pageable);
+    
+    @Query(CARD_PAGE + BY_REVIEW_COUNT)
+    List<MovieCard> findCardPageByReviewCount(@Param("afterCount") long afterCount,
+                                              @Param("afterId") long afterId,
+                                              Pageable pageable);
+    
+    @Query(CARD_PAGE + OF_TYPE + BY_REVIEW_COUNT)
+    List<MovieCard> findCardPageByReviewCount(@Param("type") MovieType type,
+                                              @Param("afterCount") long afterCount,
+                                              @Param("afterId") long afterId,
+                                              Pageable pageable);
+    
+    @Query(CARD_PAGE + BY_IMDB_RATING)
+    List<MovieCard> findCardPageByImdbRating(@Param("afterRating") double afterRating,
+                                             @Param("afterId") long afterId,
+                                             Pageable pageable);
+    
+    @Query(CARD_PAGE + OF_TYPE + BY_IMDB_RATING)
+    List<MovieCard> findCardPageByImdbRating(@Param("type") MovieType type,
+                                             @Param("afterRating") double afterRating,
+                                             @Param("afterId") long afterId,
+                                             Pageable pageable);
+    
+    @Query(CARD_PAGE + WITHOUT_IMDB_RATING)
+    List<MovieCard> findCardPageWithoutImdbRating(@Param("afterId") long afterId, Pageable pageable);
+    
+    @Query(CARD_PAGE + OF_TYPE + WITHOUT_IMDB_RATING)
+    List<MovieCard> findCardPageWithoutImdbRating(@Param("type") MovieType type,
+                                                  @Param("afterId") long afterId,
+                                                  Pageable pageable);
+    
+    @Query("SELECT " + CARD_COLUMNS + " FROM Movie m WHERE m.id IN :ids")
+    List<MovieCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // What recommendations rank candidate movies by, without loading the movies
+    String TRAIT_COLUMNS = "m.id AS id, m.genre AS genre, m.director AS director, " +
+            "m.averageRating AS averageRating, m.reviewCount AS reviewCount";
+    
+    @Query("SELECT " + TRAIT_COLUMNS + " FROM Movie m WHERE m.id IN :ids")
+    List<MovieTraits> findTraitsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT " + TRAIT_COLUMNS + " FROM Movie m ORDER BY m.reviewCount DESC, m.id")
+    List<MovieTraits> findMostReviewedTraits(Pageable pageable);
+    
+    // Review totals of every reviewed movie, for the top-rated leaderboard
+    @Query("SELECT m.id AS movieId, m.reviewCount AS reviewCount, m.ratingSum AS ratingSum " +
+           "FROM Movie m WHERE m.reviewCount > 0")
+    List<RatingTotals> findRatingTotals();
+    
+    // Forward-only cursor over the whole catalog for the export. Rows arrive in fetch-size
+    // batches and are loaded read-only; must be consumed inside a transaction.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Movie m ORDER BY m.id")
+    Stream<Movie> streamAllOrderById();
+    
+    // Atomically applies a review change to the movie's rating aggregates.
+    // SET expressions see the old row, so the average uses the new sum and count.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Movie m SET " +
+           "m.reviewCount = m.reviewCount + :countDelta, " +
+           "m.ratingSum = m.ratingSum + :ratingDelta, " +
+           "m.averageRating = CASE WHEN m.reviewCount + :countDelta > 0 " +
+           "THEN (m.ratingSum + :ratingDelta) * 1.0 / (m.reviewCount + :countDelta) ELSE 0.0 END " +
+           "WHERE m.id = :movieId")
+    int applyRatingDelta(@Param("movieId") Long movieId,
+                         @Param("countDelta") long countDelta,
+                         @Param("ratingDelta") long ratingDelta);
+    
+    // Rebuilds every movie's rating aggregates from the reviews table
+    @Transactional
+    @Modifying
+    @Query("UPDATE Movie m SET " +
+           "m.reviewCount = (SELECT COUNT(r) FROM Review r WHERE r.movie.id = m.id), " +
+           "m.ratingSum = (SELECT COALESCE(SUM(r.rating), 0) FROM Review r WHERE r.movie.id = m.id), " +
+           "m.averageRating = (SELECT COALESCE(AVG(r.rating), 0.0) FROM Review r WHERE r.movie.id = m.id)")
+    int recalculateRatingStats();
+    
+    interface RatingTotals {
+        Long getMovieId();
+        Long getReviewCount();
+        Long getRatingSum();
+    }
+    
+    // A review or watchlist entry of a movie and when it was made
+    interface MovieActivity {
+        Long getMovieId();
+        LocalDateTime getOccurredAt();
+    }
+    
+    interface MovieTraits {
+        Long getId();
+        String getGenre();
+        String getDirector();
+        Double getAverageRating();
+        Long getReviewCount();
+    }
+    
+    // Listing columns of a movie, without the long text fields
+    interface MovieCard {
+        Long getId();
+        String getTitle();
+        Integer getReleaseYear();
+        MovieType getType();
+        String getImageUrl();
+        Double getImdbRating();
+        Double getAverageRating();
+        Long getReviewCount();
+        Long getVersion();
+    }
 }
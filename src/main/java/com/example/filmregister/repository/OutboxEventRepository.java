@@ -0,0 +1,39 @@
+package com.example.filmregister.repository;
+
+import com.example.filmregister.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // Events still undelivered some time after they were written and not parked, oldest first
+    @Query("SELECT e FROM OutboxEvent e WHERE e.createdAt < :before AND e.parkedAt IS NULL ORDER BY e.id")
+    List<OutboxEvent> findCreatedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+    
+    // Takes events out of redelivery while keeping them for inspection
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.parkedAt = :parkedAt WHERE e.id IN :ids")
+    int parkByIdIn(@Param("ids") Collection<Long> ids, @Param("parkedAt") LocalDateTime parkedAt);
+    
+    // Single DELETE statement per delivered batch
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,11 +1,20 @@
 package com.example.filmregister.repository;
 
 import com.example.filmregister.entity.Review;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
@@ -13,4 +22,77 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByUserId(Long userId);
     Optional<Review> findByUserIdAndMovieId(Long userId, Long movieId);
     boolean existsByUserIdAndMovieId(Long userId, Long movieId);
+    
+    // Listings fetch the author and movie with each review, one round trip per page instead of one per row
+    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.movie WHERE r.movie.id = :movieId ORDER BY r.id")
+    List<Review> findWithUserAndMovieByMovieId(@Param("movieId") Long movieId, Pageable pageable);
+    
+    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.movie WHERE r.user.id = :userId ORDER BY r.id")
+    List<Review> findWithUserAndMovieByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // Loads the author and movie the response needs in the same statement
+    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.movie WHERE r.id = :id")
+    Optional<Review> findWithUserAndMovieById(@Param("id") Long id);
+    
+    // Every rating as (movie, user, rating) for the similarity index. Ordered along the
+    // unique (user_id, movie_id) index, which also lets both vector orientations be built by appending.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.movie.id AS movieId, r.user.id AS userId, r.rating AS rating FROM Review r " +
+           "ORDER BY r.user.id, r.movie.id")
+    Stream<RatingSignal> streamRatingSignals();
+    
+    // Reviews written since the given time, for the trending leaderboard
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.movie.id AS movieId, r.createdAt AS occurredAt FROM Review r WHERE r.createdAt >= :since")
+    Stream<MovieRepository.MovieActivity> streamActivitySince(@Param("since") LocalDateTime since);
+    
+    // The given reviews as they are now, for checking events against a leaderboard rebuild
+    @Query("SELECT r.id AS reviewId, r.movie.id AS movieId, r.rating AS rating, r.createdAt AS createdAt " +
+           "FROM Review r WHERE r.id IN :ids")
+    List<ReviewState> findStatesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT r.movie.id AS movieId, r.user.id AS userId, r.rating AS rating FROM Review r " +
+           "WHERE r.movie.id IN :movieIds ORDER BY r.user.id, r.movie.id")
+    List<RatingSignal> findRatingSignalsByMovieIdIn(@Param("movieIds") Collection<Long> movieIds);
+    
+    // A user's ratings with the movie traits their taste profile is built from
+    @Query("SELECT r.movie.id AS movieId, r.rating AS rating, m.genre AS genre, m.director AS director " +
+           "FROM Review r JOIN r.movie m WHERE r.user.id = :userId")
+    List<RatedMovie> findRatedMoviesByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT r.movie.id FROM Review r WHERE r.user.id = :userId")
+    List<Long> findMovieIdsByUserId(@Param("userId") Long userId);
+    
+    // Everything a movie's review listing depends on, read from the movie row and one index seek.
+    // Additions and deletions change the count; additions and edits move the latest update.
+    @Query("SELECT m.version AS movieVersion, m.reviewCount AS reviewCount, " +
+           "(SELECT MAX(r.updatedAt) FROM Review r WHERE r.movie.id = m.id) AS lastReviewUpdatedAt " +
+           "FROM Movie m WHERE m.id = :movieId")
+    Optional<ReviewListVersion> findReviewListVersion(@Param("movieId") Long movieId);
+    
+    interface ReviewListVersion {
+        Long getMovieVersion();
+        Long getReviewCount();
+        LocalDateTime getLastReviewUpdatedAt();
+    }
+    
+    interface RatedMovie {
+        Long getMovieId();
+        Integer getRating();
+        String getGenre();
+        String getDirector();
+    }
+    
+    interface RatingSignal {
+        Long getMovieId();
+        Long getUserId();
+        Integer getRating();
+    }
+    
+    interface ReviewState {
+        Long getReviewId();
+        Long getMovieId();
+        Integer getRating();
+        LocalDateTime getCreatedAt();
+    }
 }
@@ -1,16 +1,77 @@
 package com.example.filmregister.repository;
 
 import com.example.filmregister.entity.Watchlist;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface WatchlistRepository extends JpaRepository<Watchlist, Long> {
     List<Watchlist> findByUserId(Long userId);
+    
+    // Movies are fetched in the same statement, one round trip per page instead of one per entry
+    @Query("SELECT w FROM Watchlist w JOIN FETCH w.movie WHERE w.user.id = :userId ORDER BY w.id")
+    List<Watchlist> findWithMovieByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // Card view of the same page: listing columns only, no entities
+    @Query("SELECT w.id AS entryId, w.addedAt AS addedAt, " + MovieRepository.CARD_COLUMNS + " " +
+           "FROM Watchlist w JOIN w.movie m WHERE w.user.id = :userId ORDER BY w.id")
+    List<WatchlistCard> findCardsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // Watchlist entries as (movie, user) for the similarity index, in the unique index's order
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT w.movie.id AS movieId, w.user.id AS userId FROM Watchlist w ORDER BY w.user.id, w.movie.id")
+    Stream<WatchSignal> streamWatchSignals();
+    
+    // Watchlist additions since the given time, for the trending leaderboard
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT w.movie.id AS movieId, w.addedAt AS occurredAt FROM Watchlist w WHERE w.addedAt >= :since")
+    Stream<MovieRepository.MovieActivity> streamActivitySince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT w.movie.id AS movieId, w.user.id AS userId FROM Watchlist w " +
+           "WHERE w.movie.id IN :movieIds ORDER BY w.user.id, w.movie.id")
+    List<WatchSignal> findWatchSignalsByMovieIdIn(@Param("movieIds") Collection<Long> movieIds);
+    
+    @Query("SELECT w.movie.id AS movieId, m.genre AS genre, m.director AS director " +
+           "FROM Watchlist w JOIN w.movie m WHERE w.user.id = :userId")
+    List<WatchedMovie> findWatchedMoviesByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT w.movie.id FROM Watchlist w WHERE w.user.id = :userId")
+    List<Long> findMovieIdsByUserId(@Param("userId") Long userId);
+    
     Optional<Watchlist> findByUserIdAndMovieId(Long userId, Long movieId);
     boolean existsByUserIdAndMovieId(Long userId, Long movieId);
-    void deleteByUserIdAndMovieId(Long userId, Long movieId);
+    
+    // Single DELETE statement; a derived delete would load each entity first
+    @Modifying
+    @Query("DELETE FROM Watchlist w WHERE w.user.id = :userId AND w.movie.id = :movieId")
+    int deleteByUserIdAndMovieId(@Param("userId") Long userId, @Param("movieId") Long movieId);
+    
+    interface WatchlistCard extends MovieRepository.MovieCard {
+        Long getEntryId();
+        LocalDateTime getAddedAt();
+    }
+    
+    interface WatchedMovie {
+        Long getMovieId();
+        String getGenre();
+        String getDirector();
+    }
+    
+    interface WatchSignal {
+        Long getMovieId();
+        Long getUserId();
+    }
 }
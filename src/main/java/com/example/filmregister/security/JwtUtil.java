@@ -1,26 +1,51 @@
 package com.example.filmregister.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Date;
 
 @Component
 public class JwtUtil {
     
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    // Claims carrying the principal, so authenticated requests need no user lookup
+    private static final String USER_ID_CLAIM = "id";
+    private static final String EMAIL_CLAIM = "email";
+    private static final String ROLE_CLAIM = "role";
     
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    private final long jwtExpiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    // token -> principal for tokens whose signature has already been verified,
+    // each entry dropped when its token expires
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    
+    public JwtUtil(@Value("${jwt.secret}") String jwtSecret,
+                   @Value("${jwt.expiration}") long jwtExpiration,
+                   @Value("${jwt.verified-token-cache-size:10000}") long verifiedTokenCacheSize) {
+        this.jwtExpiration = jwtExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(Expiry.creating((String token, VerifiedToken verified) ->
+                        Duration.ofMillis(Math.max(0, verified.expiresAt() - System.currentTimeMillis()))))
+                .build();
     }
     
     public String generateToken(Authentication authentication) {
@@ -29,32 +54,78 @@ public class JwtUtil {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
         
+        String role = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .findFirst()
+                .orElse(null);
+        
         return Jwts.builder()
                 .subject(userPrincipal.getUsername())
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .claim(ROLE_CLAIM, role)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
-    public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+    /**
+     * Verifies the token and returns the principal carried in its claims, or {@code null}
+     * if the token is malformed, badly signed or expired. Tokens issued before the
+     * principal claims were added yield a principal with only the username set.
+     * A token is parsed at most once while it stays in the verified-token cache.
+     */
+    public UserDetailsImpl getUserDetailsFromValidToken(String token) {
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.principal() : null;
+    }
+    
+    public String getUsernameFromValidToken(String token) {
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.principal().getUsername() : null;
     }
     
     public boolean validateToken(String authToken) {
+        return getUsernameFromValidToken(authToken) != null;
+    }
+    
+    private VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            return cached;
+        }
+        
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(authToken);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            VerifiedToken verified = new VerifiedToken(toPrincipal(claims),
+                    expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+            if (expiration != null) {
+                verifiedTokens.put(token, verified);
+            }
+            return verified;
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
         }
     }
+    
+    private UserDetailsImpl toPrincipal(Claims claims) {
+        Number id = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        return new UserDetailsImpl(
+                id != null ? id.longValue() : null,
+                claims.getSubject(),
+                claims.get(EMAIL_CLAIM, String.class),
+                null,
+                role != null ? Collections.singletonList(new SimpleGrantedAuthority(role)) : Collections.emptyList()
+        );
+    }
+    
+    private record VerifiedToken(UserDetailsImpl principal, long expiresAt) {
+    }
 }
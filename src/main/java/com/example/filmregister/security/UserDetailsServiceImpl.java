@@ -1,8 +1,11 @@
 package com.example.filmregister.security;
 
+import com.example.filmregister.config.CacheConfig;
 import com.example.filmregister.entity.User;
 import com.example.filmregister.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -23,4 +26,25 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         
         return UserDetailsImpl.build(user);
     }
+    
+    /**
+     * Loads the principal for an authenticated request when {@code jwt.revalidate-user}
+     * is enabled, cached for a short TTL so not every request queries the users table.
+     * Every path that writes a user calls {@link #evictUser}; changes made directly in
+     * the database apply once the TTL runs out.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#username")
+    public UserDetails loadUserForRequest(String username) throws UsernameNotFoundException {
+        return loadUserByUsername(username);
+    }
+    
+    /**
+     * Drops a cached principal so the next request sees the account as it is now, e.g.
+     * after its role changes, it is banned or removed, or its name is registered again.
+     * Inside a transaction the eviction runs after commit.
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#username")
+    public void evictUser(String username) {
+    }
 }
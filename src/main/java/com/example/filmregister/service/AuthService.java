@@ -8,6 +8,7 @@ import com.example.filmregister.exception.BadRequestException;
 import com.example.filmregister.repository.UserRepository;
 import com.example.filmregister.security.JwtUtil;
 import com.example.filmregister.security.UserDetailsImpl;
+import com.example.filmregister.security.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -25,6 +26,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final UserDetailsServiceImpl userDetailsService;
     
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -43,6 +45,8 @@ public class AuthService {
         user.setRole(User.Role.USER);
         
         user = userRepository.save(user);
+        // The name may belong to an account removed in the database that is still cached
+        userDetailsService.evictUser(user.getUsername());
         
         // Auto-login after registration
         Authentication authentication = authenticationManager.authenticate(
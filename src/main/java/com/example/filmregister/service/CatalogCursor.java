@@ -0,0 +1,83 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.exception.BadRequestException;
+import com.example.filmregister.repository.MovieRepository.MovieCard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque catalog position: the sort mode it was issued for, the sort key of the
+ * last row returned and that row's id as tie-breaker. An empty key marks a row
+ * whose sort key is null (only possible for {@link CatalogSort#IMDB}).
+ */
+record CatalogCursor(CatalogSort sort, String key, long id) {
+    
+    static CatalogCursor after(CatalogSort sort, MovieCard card) {
+        return new CatalogCursor(sort, sortKey(sort, card), card.getId());
+    }
+    
+    boolean hasKey() {
+        return !key.isEmpty();
+    }
+    
+    double doubleKey() {
+        return Double.parseDouble(key);
+    }
+    
+    long longKey() {
+        return Long.parseLong(key);
+    }
+    
+    String encode() {
+        String raw = sort.name() + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static CatalogCursor decode(String cursor, CatalogSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            CatalogSort sort = CatalogSort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new BadRequestException("Cursor does not match the requested sort order");
+            }
+            CatalogCursor decoded = new CatalogCursor(sort, parts[1], Long.parseLong(parts[2]));
+            // Validate the key eagerly so a tampered cursor is a 400, not a 500
+            switch (sort) {
+                case RATING:
+                    decoded.doubleKey();
+                    break;
+                case REVIEWS:
+                    decoded.longKey();
+                    break;
+                case IMDB:
+                    if (decoded.hasKey()) {
+                        decoded.doubleKey();
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+    
+    private static String sortKey(CatalogSort sort, MovieCard card) {
+        switch (sort) {
+            case RATING:
+                return String.valueOf(card.getAverageRating());
+            case REVIEWS:
+                return String.valueOf(card.getReviewCount());
+            case IMDB:
+                return card.getImdbRating() != null ? String.valueOf(card.getImdbRating()) : "";
+            default:
+                return "";
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.filmregister.service;
+
+/**
+ * Sort modes of the movie catalog. Every mode is a keyset ordering that ends in
+ * the movie id, so a position in it can be resumed from a cursor.
+ */
+public enum CatalogSort {
+    DEFAULT,
+    RATING,
+    REVIEWS,
+    IMDB;
+    
+    public static CatalogSort from(String sort) {
+        if (sort == null) {
+            return DEFAULT;
+        }
+        
+        switch (sort.toLowerCase()) {
+            case "rating":
+                return RATING;
+            case "reviews":
+                return REVIEWS;
+            case "imdb":
+                return IMDB;
+            default:
+                return DEFAULT;
+        }
+    }
+}
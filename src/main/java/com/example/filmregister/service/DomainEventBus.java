@@ -0,0 +1,290 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.entity.OutboxEvent;
+import com.example.filmregister.event.DomainEvent;
+import com.example.filmregister.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-process delivery of {@link DomainEvent}s to every {@link DomainEventListener}.
+ * <p>
+ * {@link #publish} writes the event to the outbox table in the caller's transaction and
+ * queues it once that transaction commits. A single worker thread drains the bounded
+ * queue in batches, hands each batch to the listeners in turn and deletes the rows every
+ * listener took with one statement. A full queue never blocks the writer: the event waits
+ * in the outbox until {@link #redeliverStale()} queues it as room frees up, which is also
+ * how the events of an instance that stopped before delivering them get delivered after a
+ * restart.
+ * <p>
+ * A row stays in the outbox until every listener has taken its event, so one that fails
+ * on a batch gets it again on redelivery. Each redelivery counts as an attempt, and an
+ * event that still misses a listener after {@code max-attempts} of them is parked: logged
+ * and left in the outbox, but not redelivered again.
+ * <p>
+ * The bus assumes a single application instance per database. Redelivery does not claim
+ * rows, so instances sharing an outbox would each deliver the others' stale events. The
+ * instance remembers which listeners took each event still in the outbox and skips them
+ * when redelivering it, whether the row was kept for a failed listener or because
+ * deleting it failed. That memory does not survive a restart, so an event can reach a
+ * listener twice when the application stopped after the listener took it but before its
+ * row was deleted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DomainEventBus implements SmartLifecycle {
+    
+    private static final Map<String, Class<? extends DomainEvent>> EVENT_TYPES =
+            Arrays.stream(DomainEvent.class.getPermittedSubclasses())
+                    .collect(Collectors.toMap(Class::getSimpleName, type -> type.asSubclass(DomainEvent.class)));
+    private static final long POLL_TIMEOUT_MS = 500;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final List<DomainEventListener> listeners;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${events.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${events.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${events.outbox.redeliver-after:30s}")
+    private Duration redeliverAfter;
+    
+    @Value("${events.outbox.max-attempts:10}")
+    private int maxAttempts;
+    
+    // Outbox ids of the events queued or being delivered, which redelivery skips
+    private final Set<Long> queuedIds = ConcurrentHashMap.newKeySet();
+    // Listeners that took each event still in the outbox; touched by the worker only
+    private final Map<Long, Set<DomainEventListener>> takenBy = new HashMap<>();
+    private final Object idleMonitor = new Object();
+    private BlockingQueue<QueuedEvent> queue;
+    private Counter overflowed;
+    private Counter parked;
+    private Thread worker;
+    private volatile boolean running;
+    
+    /**
+     * Records the event in the current transaction and queues it for delivery once that
+     * commits; nothing is delivered if it rolls back.
+     */
+    public void publish(DomainEvent event) {
+        OutboxEvent row = outboxEventRepository.save(new OutboxEvent(null, event.getClass().getSimpleName(),
+                objectMapper.writeValueAsString(event), LocalDateTime.now(), 0, null));
+        Long id = row.getId();
+        AfterCommit.run(() -> enqueue(new QueuedEvent(id, event, 0)));
+    }
+    
+    /**
+     * Queues outbox events older than the redelivery delay that are not queued already:
+     * those that found the queue full, and those left behind by a stopped instance. Takes
+     * no more than the queue has room for, and counts an attempt for each. Returns the
+     * number queued.
+     */
+    public int redeliverStale() {
+        int room = running ? queue.remainingCapacity() : 0;
+        if (room == 0) {
+            return 0;
+        }
+        
+        List<OutboxEvent> stale = outboxEventRepository.findCreatedBefore(
+                LocalDateTime.now().minus(redeliverAfter), PageRequest.of(0, Math.min(room, batchSize)));
+        List<Long> unreadable = new ArrayList<>();
+        List<Long> queued = new ArrayList<>();
+        for (OutboxEvent row : stale) {
+            DomainEvent event = read(row);
+            if (event == null) {
+                unreadable.add(row.getId());
+            } else if (enqueue(new QueuedEvent(row.getId(), event, row.getAttempts() + 1))) {
+                queued.add(row.getId());
+            }
+        }
+        if (!unreadable.isEmpty()) {
+            outboxEventRepository.deleteByIdIn(unreadable);
+        }
+        if (!queued.isEmpty()) {
+            outboxEventRepository.incrementAttempts(queued);
+        }
+        return queued.size();
+    }
+    
+    // Lets tests wait until every queued event has been delivered
+    boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (idleMonitor) {
+            while (!queuedIds.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(idleMonitor, remaining);
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        overflowed = meterRegistry.counter("domain.events.overflowed");
+        parked = meterRegistry.counter("domain.events.parked");
+        meterRegistry.gauge("domain.events.queued", queue, BlockingQueue::size);
+        running = true;
+        worker = Thread.ofPlatform().name("domain-events").daemon().start(this::deliverQueued);
+    }
+    
+    // Delivers what is queued before returning; later commits stay in the outbox
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            worker.join(SHUTDOWN_TIMEOUT.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private boolean enqueue(QueuedEvent queued) {
+        if (!running || !queuedIds.add(queued.id())) {
+            return false;
+        }
+        if (queue.offer(queued)) {
+            return true;
+        }
+        // Stays in the outbox until redelivered
+        queuedIds.remove(queued.id());
+        overflowed.increment();
+        return false;
+    }
+    
+    private void deliverQueued() {
+        List<QueuedEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedEvent first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void deliver(List<QueuedEvent> batch) {
+        for (DomainEventListener listener : listeners) {
+            List<QueuedEvent> untaken = batch.stream()
+                    .filter(queued -> !takenBy.getOrDefault(queued.id(), Set.of()).contains(listener))
+                    .toList();
+            if (untaken.isEmpty()) {
+                continue;
+            }
+            try {
+                listener.onEvents(untaken.stream().map(QueuedEvent::event).toList());
+                untaken.forEach(queued -> takenBy.computeIfAbsent(queued.id(), id -> new HashSet<>()).add(listener));
+            } catch (RuntimeException e) {
+                // The rows stay in the outbox, so this listener gets the events again on redelivery
+                log.error("{} failed on a batch of {} events",
+                        ClassUtils.getUserClass(listener).getSimpleName(), untaken.size(), e);
+            }
+        }
+        
+        List<Long> ids = batch.stream().map(QueuedEvent::id).toList();
+        List<Long> delivered = ids.stream()
+                .filter(id -> takenBy.getOrDefault(id, Set.of()).size() == listeners.size())
+                .toList();
+        List<QueuedEvent> exhausted = batch.stream()
+                .filter(queued -> queued.attempts() >= maxAttempts && !delivered.contains(queued.id()))
+                .toList();
+        try {
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.deleteByIdIn(delivered);
+                delivered.forEach(takenBy::remove);
+            }
+            if (!exhausted.isEmpty()) {
+                park(exhausted);
+            }
+        } catch (RuntimeException e) {
+            // The rows stay in the outbox; their redelivery reaches no listener and retries this
+            log.warn("Could not clear {} delivered and {} exhausted events from the outbox",
+                    delivered.size(), exhausted.size(), e);
+        } finally {
+            queuedIds.removeAll(ids);
+            synchronized (idleMonitor) {
+                idleMonitor.notifyAll();
+            }
+        }
+    }
+    
+    private void park(List<QueuedEvent> exhausted) {
+        outboxEventRepository.parkByIdIn(exhausted.stream().map(QueuedEvent::id).toList(), LocalDateTime.now());
+        for (QueuedEvent queued : exhausted) {
+            Set<DomainEventListener> taken = takenBy.getOrDefault(queued.id(), Set.of());
+            log.error("Parked outbox event {} after {} attempts, not taken by {}", queued.id(), queued.attempts(),
+                    listeners.stream()
+                            .filter(listener -> !taken.contains(listener))
+                            .map(listener -> ClassUtils.getUserClass(listener).getSimpleName())
+                            .toList());
+            takenBy.remove(queued.id());
+        }
+        parked.increment(exhausted.size());
+    }
+    
+    private DomainEvent read(OutboxEvent row) {
+        Class<? extends DomainEvent> type = EVENT_TYPES.get(row.getType());
+        if (type == null) {
+            log.warn("Dropping outbox event {} of unknown type {}", row.getId(), row.getType());
+            return null;
+        }
+        try {
+            return objectMapper.readValue(row.getPayload(), type);
+        } catch (JacksonException e) {
+            log.warn("Dropping unreadable outbox event {} of type {}", row.getId(), row.getType(), e);
+            return null;
+        }
+    }
+    
+    // Attempts counts the redeliveries, so zero for the delivery after commit
+    private record QueuedEvent(Long id, DomainEvent event, int attempts) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.event.DomainEvent;
+
+import java.util.List;
+
+/**
+ * Receives committed {@link DomainEvent}s from the {@link DomainEventBus}, in batches on
+ * its worker thread. Events arrive in about commit order, except redelivered ones, which
+ * arrive late. A listener that throws gets the whole batch again later, so it should apply
+ * a batch entirely or not at all. Events it took are not redelivered to it, unless the
+ * application stopped before they left the outbox.
+ */
+public interface DomainEventListener {
+    
+    void onEvents(List<DomainEvent> events);
+}
@@ -0,0 +1,28 @@
+package com.example.filmregister.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Queues outbox events that were not delivered in time: those that found the event
+ * queue full, and those an earlier run of the application left behind.
+ */
+@Component
+@ConditionalOnProperty(name = "events.outbox.redelivery.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class DomainEventRedeliveryJob {
+    
+    private final DomainEventBus domainEventBus;
+    
+    @Scheduled(fixedDelayString = "${events.outbox.redeliver-interval:10s}")
+    public void redeliver() {
+        int queued = domainEventBus.redeliverStale();
+        if (queued > 0) {
+            log.debug("Queued {} undelivered outbox events", queued);
+        }
+    }
+}
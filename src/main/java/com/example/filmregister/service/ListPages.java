@@ -0,0 +1,26 @@
+package com.example.filmregister.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Optional page/size parameters for list endpoints that used to return everything.
+ * Without either parameter the whole list is returned so existing clients keep working.
+ */
+final class ListPages {
+    
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    
+    private ListPages() {
+    }
+    
+    static Pageable of(Integer page, Integer size) {
+        if (page == null && size == null) {
+            return Pageable.unpaged();
+        }
+        
+        int pageSize = size != null ? Math.min(Math.max(size, 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        return PageRequest.of(page != null ? Math.max(page, 0) : 0, pageSize);
+    }
+}
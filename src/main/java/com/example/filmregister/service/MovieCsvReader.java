@@ -0,0 +1,168 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.request.MovieRequest;
+import com.example.filmregister.entity.MovieType;
+import com.example.filmregister.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads movie records from RFC 4180 CSV one record at a time. The first record is a
+ * header naming the {@link MovieRequest} field of each column (case, underscores and
+ * dashes are ignored, unknown columns are skipped). Quoted values may contain commas,
+ * doubled quotes and line breaks; empty values are read as null.
+ */
+class MovieCsvReader implements Iterator<MovieImportRow>, Closeable {
+    
+    private static final Map<String, BiConsumer<MovieRequest, String>> COLUMNS = Map.ofEntries(
+            Map.entry("title", MovieRequest::setTitle),
+            Map.entry("description", MovieRequest::setDescription),
+            Map.entry("releaseyear", (request, value) -> request.setReleaseYear(Integer.valueOf(value))),
+            Map.entry("genre", MovieRequest::setGenre),
+            Map.entry("director", MovieRequest::setDirector),
+            Map.entry("imageurl", MovieRequest::setImageUrl),
+            Map.entry("actors", MovieRequest::setActors),
+            Map.entry("type", (request, value) -> request.setType(MovieType.valueOf(value.toUpperCase(Locale.ROOT)))),
+            Map.entry("seasons", (request, value) -> request.setSeasons(Integer.valueOf(value))),
+            Map.entry("episodes", (request, value) -> request.setEpisodes(Integer.valueOf(value))),
+            Map.entry("imdbid", MovieRequest::setImdbId),
+            Map.entry("imdbrating", (request, value) -> request.setImdbRating(Double.valueOf(value)))
+    );
+    
+    private final Reader reader;
+    private final List<String> header;
+    private final StringBuilder value = new StringBuilder();
+    private List<String> nextRecord;
+    private boolean exhausted;
+    private int rowNumber;
+    
+    MovieCsvReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> names = readRecord();
+        if (names == null) {
+            throw new BadRequestException("CSV body is empty");
+        }
+        header = new ArrayList<>(names.size());
+        for (String name : names) {
+            // A leading byte order mark would otherwise stick to the first column name
+            header.add(name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replaceAll("[_\\- ]", ""));
+        }
+        if (!header.contains("title")) {
+            throw new BadRequestException("CSV header must include a title column");
+        }
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (nextRecord == null && !exhausted) {
+            nextRecord = readRecord();
+            exhausted = nextRecord == null;
+        }
+        return nextRecord != null;
+    }
+    
+    @Override
+    public MovieImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<String> record = nextRecord;
+        nextRecord = null;
+        rowNumber++;
+        
+        MovieRequest request = new MovieRequest();
+        for (int i = 0; i < record.size() && i < header.size(); i++) {
+            BiConsumer<MovieRequest, String> setter = COLUMNS.get(header.get(i));
+            String field = record.get(i).trim();
+            if (setter == null || field.isEmpty()) {
+                continue;
+            }
+            try {
+                setter.accept(request, field);
+            } catch (IllegalArgumentException e) {
+                return MovieImportRow.failed(rowNumber, "Invalid " + header.get(i) + ": '" + field + "'");
+            }
+        }
+        return MovieImportRow.parsed(rowNumber, request);
+    }
+    
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // Returns the next non-blank record, or null at the end of the input
+    private List<String> readRecord() {
+        try {
+            List<String> fields = new ArrayList<>();
+            value.setLength(0);
+            boolean quoted = false;
+            boolean empty = true;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (quoted) {
+                    if (c != '"') {
+                        value.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        value.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                    empty = false;
+                } else if (c == ',') {
+                    fields.add(value.toString());
+                    value.setLength(0);
+                    empty = false;
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    if (!empty) {
+                        fields.add(value.toString());
+                        return fields;
+                    }
+                } else {
+                    value.append((char) c);
+                    empty = false;
+                }
+            }
+            if (quoted) {
+                throw new BadRequestException("Malformed CSV after row " + rowNumber + ": unterminated quoted value");
+            }
+            if (empty) {
+                return null;
+            }
+            fields.add(value.toString());
+            return fields;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.response.MovieResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.exception.TooManyRequestsException;
+import com.example.filmregister.repository.MovieRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+@Slf4j
+public class MovieExportService {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final MovieRepository movieRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final Semaphore exportSlots;
+    
+    MovieExportService(MovieRepository movieRepository, ObjectMapper objectMapper, EntityManager entityManager,
+                       @Value("${movies.export.max-concurrent:2}") int maxConcurrentExports) {
+        this.movieRepository = movieRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        // Each export holds a connection and a cursor for the whole catalog, so only a few may run at once
+        this.exportSlots = new Semaphore(maxConcurrentExports);
+    }
+    
+    /**
+     * Reserves an export slot, or fails with 429 when every slot is taken. The caller
+     * must hand the slot back with {@link #releaseSlot()} once the export has ended.
+     */
+    public void acquireSlot() {
+        if (!exportSlots.tryAcquire()) {
+            throw new TooManyRequestsException("Too many exports are running, retry later");
+        }
+    }
+    
+    public void releaseSlot() {
+        exportSlots.release();
+    }
+    
+    /**
+     * Writes the whole catalog, rating aggregates included, as newline-delimited JSON.
+     * Movies are read through a forward-only cursor and detached once written, so
+     * memory use stays flat however many rows there are. Returns the number written.
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : new BufferedOutputStream(out, BUFFER_SIZE);
+        ObjectWriter writer = objectMapper.writerFor(MovieResponse.class);
+        long count = 0;
+        
+        try (Stream<Movie> movies = movieRepository.streamAllOrderById()) {
+            Iterator<Movie> iterator = movies.iterator();
+            while (iterator.hasNext()) {
+                Movie movie = iterator.next();
+                target.write(writer.writeValueAsBytes(MovieService.mapToResponse(movie)));
+                target.write('\n');
+                entityManager.detach(movie);
+                count++;
+            }
+        }
+        
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        target.flush();
+        log.info("Exported {} movies", count);
+        return count;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.request.MovieRequest;
+
+/**
+ * One record read from an import body: either the parsed request or the reason
+ * it could not be parsed.
+ */
+record MovieImportRow(int number, MovieRequest request, String error) {
+    
+    static MovieImportRow parsed(int number, MovieRequest request) {
+        return new MovieImportRow(number, request, null);
+    }
+    
+    static MovieImportRow failed(int number, String error) {
+        return new MovieImportRow(number, null, error);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.config.CacheConfig;
+import com.example.filmregister.dto.request.MovieRequest;
+import com.example.filmregister.dto.response.MovieImportError;
+import com.example.filmregister.dto.response.MovieImportResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.exception.BadRequestException;
+import com.example.filmregister.repository.MovieRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk catalog import. The body is read one record at a time and written in chunks,
+ * each in its own transaction, so neither the request nor the persistence context
+ * grows with the size of the import. Rows are validated with the same rules as
+ * {@code POST /api/movies} and upserted by {@code imdbId}; rows without one are
+ * always inserted. When a chunk fails in the database it is retried row by row so
+ * the offending rows can be reported and the rest still committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MovieImportService {
+    
+    private final MovieRepository movieRepository;
+    private final MovieSearchIndex movieSearchIndex;
+    private final CacheManager cacheManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    
+    @Value("${movies.import.chunk-size:1000}")
+    private int chunkSize;
+    
+    @Value("${movies.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+    
+    public MovieImportResponse importJson(InputStream in, String username) {
+        try (MovieJsonReader reader = new MovieJsonReader(objectMapper, in)) {
+            return importRows(reader, username);
+        }
+    }
+    
+    public MovieImportResponse importCsv(InputStream in, String username) {
+        try (MovieCsvReader reader = new MovieCsvReader(in)) {
+            return importRows(reader, username);
+        }
+    }
+    
+    private MovieImportResponse importRows(Iterator<MovieImportRow> rows, String username) {
+        MovieImportResponse report = new MovieImportResponse();
+        List<MovieImportRow> chunk = new ArrayList<>(chunkSize);
+        try {
+            while (rows.hasNext()) {
+                MovieImportRow row = rows.next();
+                report.setProcessed(report.getProcessed() + 1);
+                
+                String error = row.error() != null ? row.error() : validate(row.request());
+                if (error != null) {
+                    recordFailure(report, row, error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, username, report);
+                    chunk.clear();
+                }
+            }
+        } catch (BadRequestException e) {
+            // The rest of the body cannot be read; keep what was read before it
+            report.setCompleted(false);
+            report.getErrors().add(new MovieImportError(null, null, e.getMessage()));
+        }
+        writeChunk(chunk, username, report);
+        
+        log.info("Movie import by {} - {} rows, {} created, {} updated, {} failed",
+                username, report.getProcessed(), report.getCreated(), report.getUpdated(), report.getFailed());
+        return report;
+    }
+    
+    private String validate(MovieRequest request) {
+        if (request.getImdbId() != null) {
+            request.setImdbId(request.getImdbId().isBlank() ? null : request.getImdbId().trim());
+        }
+        
+        Set<ConstraintViolation<MovieRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+    
+    private void writeChunk(List<MovieImportRow> chunk, String username, MovieImportResponse report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            addCounts(report, transactionTemplate.execute(status -> upsert(chunk, username)));
+        } catch (DataAccessException e) {
+            log.debug("Import chunk failed, retrying its {} rows one by one", chunk.size(), e);
+            for (MovieImportRow row : chunk) {
+                try {
+                    addCounts(report, transactionTemplate.execute(status -> upsert(List.of(row), username)));
+                } catch (DataAccessException rowFailure) {
+                    recordFailure(report, row, NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        } finally {
+            // Open session in view would otherwise keep every imported movie managed
+            entityManager.clear();
+        }
+    }
+    
+    private ChunkCounts upsert(List<MovieImportRow> rows, String username) {
+        Set<String> imdbIds = rows.stream()
+                .map(row -> row.request().getImdbId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Movie> moviesByImdbId = new HashMap<>();
+        if (!imdbIds.isEmpty()) {
+            movieRepository.findByImdbIdIn(imdbIds).forEach(movie -> moviesByImdbId.putIfAbsent(movie.getImdbId(), movie));
+        }
+        
+        int created = 0;
+        int updated = 0;
+        // Identity set: a movie hit by several rows is saved and indexed once
+        Set<Movie> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (MovieImportRow row : rows) {
+            MovieRequest request = row.request();
+            Movie movie = request.getImdbId() != null ? moviesByImdbId.get(request.getImdbId()) : null;
+            if (movie == null) {
+                movie = new Movie();
+                movie.setCreatedBy(username);
+                if (request.getImdbId() != null) {
+                    moviesByImdbId.put(request.getImdbId(), movie);
+                }
+                created++;
+            } else {
+                updated++;
+            }
+            MovieService.applyRequest(movie, request);
+            touched.add(movie);
+        }
+        movieRepository.saveAll(touched);
+        movieRepository.flush();
+        
+        Cache moviesCache = cacheManager.getCache(CacheConfig.MOVIES_CACHE);
+        for (Movie movie : touched) {
+            movieSearchIndex.index(movie);
+            if (moviesCache != null) {
+                moviesCache.evict(movie.getId());
+            }
+        }
+        return new ChunkCounts(created, updated);
+    }
+    
+    private void addCounts(MovieImportResponse report, ChunkCounts counts) {
+        report.setCreated(report.getCreated() + counts.created());
+        report.setUpdated(report.getUpdated() + counts.updated());
+    }
+    
+    private void recordFailure(MovieImportResponse report, MovieImportRow row, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            String imdbId = row.request() != null ? row.request().getImdbId() : null;
+            report.getErrors().add(new MovieImportError(row.number(), imdbId, message));
+        }
+    }
+    
+    private record ChunkCounts(int created, int updated) {
+    }
+}
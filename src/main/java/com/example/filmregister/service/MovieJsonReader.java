@@ -0,0 +1,71 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.request.MovieRequest;
+import com.example.filmregister.exception.BadRequestException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Reads the elements of a JSON array one at a time, so only the current element is
+ * held in memory. Each element is read as a tree first, which keeps a bad value
+ * confined to its own row instead of leaving the parser mid-object.
+ */
+class MovieJsonReader implements Iterator<MovieImportRow>, Closeable {
+    
+    private final ObjectMapper objectMapper;
+    private final MappingIterator<JsonNode> elements;
+    private int rowNumber;
+    
+    MovieJsonReader(ObjectMapper objectMapper, InputStream in) {
+        this.objectMapper = objectMapper;
+        try {
+            this.elements = objectMapper.readerFor(JsonNode.class).readValues(in);
+        } catch (JacksonException e) {
+            throw malformed(e);
+        }
+    }
+    
+    @Override
+    public boolean hasNext() {
+        try {
+            return elements.hasNextValue();
+        } catch (JacksonException e) {
+            throw malformed(e);
+        }
+    }
+    
+    @Override
+    public MovieImportRow next() {
+        JsonNode element;
+        try {
+            element = elements.nextValue();
+        } catch (JacksonException e) {
+            throw malformed(e);
+        }
+        rowNumber++;
+        
+        if (!element.isObject()) {
+            return MovieImportRow.failed(rowNumber, "Expected a JSON object");
+        }
+        try {
+            return MovieImportRow.parsed(rowNumber, objectMapper.treeToValue(element, MovieRequest.class));
+        } catch (JacksonException e) {
+            return MovieImportRow.failed(rowNumber, "Invalid value: " + e.getOriginalMessage());
+        }
+    }
+    
+    @Override
+    public void close() {
+        elements.close();
+    }
+    
+    private BadRequestException malformed(JacksonException e) {
+        return new BadRequestException("Malformed JSON after row " + rowNumber + ": " + e.getOriginalMessage());
+    }
+}
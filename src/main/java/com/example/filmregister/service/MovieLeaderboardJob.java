@@ -0,0 +1,34 @@
+package com.example.filmregister.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds {@link MovieLeaderboards} once the application is ready and rebuilds them at a
+ * fixed delay; reviews and watchlist additions keep them current in between.
+ */
+@Component
+@ConditionalOnProperty(name = "leaderboards.job.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class MovieLeaderboardJob {
+    
+    private final MovieLeaderboards movieLeaderboards;
+    
+    // Off the startup thread; the leaderboards are empty until it completes
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        movieLeaderboards.rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${leaderboards.job.rebuild-interval:1h}",
+               initialDelayString = "${leaderboards.job.rebuild-interval:1h}")
+    public void rebuild() {
+        movieLeaderboards.rebuild();
+    }
+}
@@ -0,0 +1,459 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.event.DomainEvent;
+import com.example.filmregister.event.DomainEvent.MovieDeleted;
+import com.example.filmregister.event.DomainEvent.ReviewCreated;
+import com.example.filmregister.event.DomainEvent.ReviewDeleted;
+import com.example.filmregister.event.DomainEvent.ReviewUpdated;
+import com.example.filmregister.event.DomainEvent.WatchlistAdded;
+import com.example.filmregister.event.DomainEvent.WatchlistRemoved;
+import com.example.filmregister.repository.MovieRepository;
+import com.example.filmregister.repository.MovieRepository.MovieActivity;
+import com.example.filmregister.repository.MovieRepository.RatingTotals;
+import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.ReviewRepository.ReviewState;
+import com.example.filmregister.repository.WatchlistRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory "top rated" and "trending" rankings of the catalog.
+ * <p>
+ * Top rated orders movies by the Bayesian average of their ratings: the mean of the
+ * movie's reviews plus {@code prior-weight} virtual reviews at the catalog-wide mean, so a
+ * movie needs many good reviews, not one, to rank high. Trending orders movies by recent
+ * activity, a review counting 1 and a watchlist addition {@value #WATCHLIST_ACTIVITY},
+ * each decaying by half every {@code half-life}. Since every score decays at the same
+ * rate, scores are stored as of a fixed anchor time and only scaled to the present when
+ * read; the order never needs touching as time passes.
+ * <p>
+ * Review, watchlist and movie events move just the affected movie in each ranking.
+ * {@link #rebuild()} reloads both from the database, which also settles what events leave
+ * out, such as watchlist removals. Events that arrive while a rebuild is loading are held
+ * back, and the rows they touch are then looked up in the snapshot the load read from. A
+ * touched review moves by the difference between the state the events leave it in and the
+ * state the load read, and a watchlist addition counts only when the load did not read it,
+ * so the swap neither loses these events nor counts them twice. The catalog mean used as
+ * the prior is fixed between rebuilds.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MovieLeaderboards implements DomainEventListener {
+    
+    static final int MAX_LIMIT = 100;
+    private static final double WATCHLIST_ACTIVITY = 0.5;
+    // Activity older than this many half-lives weighs under 0.1% and is not loaded
+    private static final int TRENDING_WINDOW_HALF_LIVES = 10;
+    
+    private final MovieRepository movieRepository;
+    private final ReviewRepository reviewRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${leaderboards.top.prior-weight:10}")
+    private double priorWeight;
+    
+    @Value("${leaderboards.trending.half-life:7d}")
+    private Duration halfLife;
+    
+    // Held for a whole rebuild, JDBC included, so a lock that does not pin a virtual thread's carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    
+    // Replaced as a whole by rebuilds; updated in place under this object's lock
+    private volatile Ranking top = new Ranking();
+    private volatile Ranking trending = new Ranking();
+    private Map<Long, long[]> ratingTotals = new HashMap<>();
+    private double priorMean;
+    private LocalDateTime anchor;
+    private LocalDateTime windowStart;
+    private volatile boolean built;
+    // Events heard while a rebuild is loading, replayed onto what it loaded; null otherwise
+    private List<DomainEvent> heldBack;
+    
+    /**
+     * Returns the best rated movies with their Bayesian average, best first.
+     */
+    public List<Ranked> top(int limit) {
+        return top.first(limit, 1.0);
+    }
+    
+    /**
+     * Returns the movies with the most recent activity with their current decayed
+     * activity score, highest first.
+     */
+    public List<Ranked> trending(int limit) {
+        Ranking ranking;
+        LocalDateTime from;
+        synchronized (this) {
+            ranking = trending;
+            from = anchor;
+        }
+        return ranking.first(limit, from != null ? decay(from, LocalDateTime.now()) : 1.0);
+    }
+    
+    public boolean isBuilt() {
+        return built;
+    }
+    
+    /**
+     * Moves the movies that the events touch. Events from before the last rebuild are
+     * already part of what it loaded and are skipped.
+     */
+    @Override
+    public synchronized void onEvents(List<DomainEvent> events) {
+        if (heldBack != null) {
+            heldBack.addAll(events);
+        }
+        if (built) {
+            apply(events);
+        }
+    }
+    
+    private void apply(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (!event.occurredAt().isBefore(anchor)) {
+                apply(event);
+            }
+        }
+    }
+    
+    private void apply(DomainEvent event) {
+        switch (event) {
+            case ReviewCreated created -> applyReview(created.movieId(), 1, created.rating(), created.occurredAt());
+            case ReviewUpdated updated ->
+                    applyReview(updated.movieId(), 0, updated.rating() - updated.previousRating(), null);
+            case ReviewDeleted deleted ->
+                    applyReview(deleted.movieId(), -1, -deleted.rating(), deleted.reviewCreatedAt());
+            case WatchlistAdded added -> {
+                if (inWindow(added.occurredAt())) {
+                    trending.add(added.movieId(), WATCHLIST_ACTIVITY * decay(anchor, added.occurredAt()));
+                }
+            }
+            // Settled by the next rebuild, like activity that ages out of the window
+            case WatchlistRemoved removed -> {
+            }
+            case MovieDeleted deleted -> {
+                ratingTotals.remove(deleted.movieId());
+                top.remove(deleted.movieId());
+                trending.remove(deleted.movieId());
+            }
+        }
+    }
+    
+    /**
+     * Reloads both rankings from the database.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            LocalDateTime loadAnchor;
+            synchronized (this) {
+                loadAnchor = LocalDateTime.now();
+                heldBack = new ArrayList<>();
+            }
+            LocalDateTime since = loadAnchor.minus(halfLife.multipliedBy(TRENDING_WINDOW_HALF_LIVES));
+            
+            Map<Long, long[]> loadedTotals = new HashMap<>();
+            Map<Long, Double> activity = new HashMap<>();
+            try {
+                // The held-back events are checked against the very snapshot the load read
+                snapshotTransaction().executeWithoutResult(status -> {
+                    load(since, loadAnchor, loadedTotals, activity);
+                    swap(since, loadAnchor, loadedTotals, activity);
+                });
+            } catch (RuntimeException e) {
+                // The live rankings heard these events already
+                synchronized (this) {
+                    heldBack = null;
+                }
+                throw e;
+            }
+            log.info("Built leaderboards of {} rated and {} active movies in {} ms",
+                    loadedTotals.size(), activity.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    private void load(LocalDateTime since, LocalDateTime loadAnchor,
+                      Map<Long, long[]> loadedTotals, Map<Long, Double> activity) {
+        for (RatingTotals totals : movieRepository.findRatingTotals()) {
+            loadedTotals.put(totals.getMovieId(), new long[] {totals.getReviewCount(), totals.getRatingSum()});
+        }
+        try (Stream<MovieActivity> reviews = reviewRepository.streamActivitySince(since)) {
+            reviews.forEach(review -> activity.merge(review.getMovieId(),
+                    decay(loadAnchor, review.getOccurredAt()), Double::sum));
+        }
+        try (Stream<MovieActivity> additions = watchlistRepository.streamActivitySince(since)) {
+            additions.forEach(addition -> activity.merge(addition.getMovieId(),
+                    WATCHLIST_ACTIVITY * decay(loadAnchor, addition.getOccurredAt()), Double::sum));
+        }
+    }
+    
+    /**
+     * Replaces the live rankings with the loaded ones and replays the held-back events onto
+     * them. Runs in the load's transaction: the rows the events touch are looked up outside
+     * this object's lock, and the swap happens once the lock finds none left to look up.
+     */
+    private void swap(LocalDateTime since, LocalDateTime loadAnchor,
+                      Map<Long, long[]> loadedTotals, Map<Long, Double> activity) {
+        long reviewCount = 0;
+        long ratingSum = 0;
+        for (long[] totals : loadedTotals.values()) {
+            reviewCount += totals[0];
+            ratingSum += totals[1];
+        }
+        double mean = reviewCount > 0 ? (double) ratingSum / reviewCount : 0.0;
+        
+        Ranking loadedTop = new Ranking();
+        loadedTotals.forEach((movieId, totals) -> loadedTop.put(movieId, bayesianAverage(totals, mean)));
+        Ranking loadedTrending = new Ranking();
+        activity.forEach(loadedTrending::put);
+        
+        SnapshotRows snapshot = new SnapshotRows();
+        while (true) {
+            List<DomainEvent> unchecked;
+            synchronized (this) {
+                unchecked = snapshot.unchecked(heldBack);
+                if (unchecked.isEmpty()) {
+                    ratingTotals = loadedTotals;
+                    priorMean = mean;
+                    anchor = loadAnchor;
+                    windowStart = since;
+                    top = loadedTop;
+                    trending = loadedTrending;
+                    built = true;
+                    List<DomainEvent> replayed = heldBack;
+                    heldBack = null;
+                    replay(replayed, snapshot);
+                    return;
+                }
+            }
+            snapshot.lookUp(unchecked);
+        }
+    }
+    
+    // Whatever order the events came in, what counts is the state they leave each review in
+    private void replay(List<DomainEvent> events, SnapshotRows snapshot) {
+        Map<Long, ReviewOutcome> outcomes = new LinkedHashMap<>();
+        List<DomainEvent> others = new ArrayList<>();
+        for (DomainEvent event : events) {
+            switch (event) {
+                case ReviewCreated created -> outcomes.put(created.reviewId(),
+                        new ReviewOutcome(created.movieId(), created.rating(), created.occurredAt()));
+                case ReviewUpdated updated -> outcomes.merge(updated.reviewId(),
+                        new ReviewOutcome(updated.movieId(), updated.rating(), null),
+                        (previous, next) -> new ReviewOutcome(next.movieId(), next.rating(), previous.createdAt()));
+                case ReviewDeleted deleted -> outcomes.put(deleted.reviewId(),
+                        new ReviewOutcome(deleted.movieId(), null, null));
+                case WatchlistAdded added -> {
+                    if (!snapshot.holds(added)) {
+                        apply(added);
+                    }
+                }
+                default -> others.add(event);
+            }
+        }
+        outcomes.forEach((reviewId, outcome) -> settleReview(snapshot.review(reviewId), outcome));
+        // Movie deletions last, so no settled review brings a deleted movie back
+        others.forEach(this::apply);
+    }
+    
+    private void settleReview(ReviewState loaded, ReviewOutcome outcome) {
+        boolean wasLoaded = loaded != null;
+        boolean exists = outcome.rating() != null;
+        int countDelta = (exists ? 1 : 0) - (wasLoaded ? 1 : 0);
+        int ratingDelta = (exists ? outcome.rating() : 0) - (wasLoaded ? loaded.getRating() : 0);
+        if (countDelta == 0 && ratingDelta == 0) {
+            return;
+        }
+        // Activity is added for a review the load missed and taken back for one it read but that is gone
+        LocalDateTime createdAt = countDelta > 0 ? outcome.createdAt() : countDelta < 0 ? loaded.getCreatedAt() : null;
+        applyReview(outcome.movieId(), countDelta, ratingDelta, createdAt);
+    }
+    
+    private void applyReview(Long movieId, int countDelta, int ratingDelta, LocalDateTime createdAt) {
+        long[] totals = ratingTotals.computeIfAbsent(movieId, key -> new long[2]);
+        totals[0] += countDelta;
+        totals[1] += ratingDelta;
+        if (totals[0] > 0) {
+            top.put(movieId, bayesianAverage(totals, priorMean));
+        } else {
+            ratingTotals.remove(movieId);
+            top.remove(movieId);
+        }
+        // Only activity inside the loaded window, so a deleted old review takes back nothing
+        if (createdAt != null && inWindow(createdAt)) {
+            trending.add(movieId, countDelta * decay(anchor, createdAt));
+        }
+    }
+    
+    private boolean inWindow(LocalDateTime at) {
+        return !at.isBefore(windowStart);
+    }
+    
+    private double bayesianAverage(long[] totals, double mean) {
+        return (priorWeight * mean + totals[1]) / (priorWeight + totals[0]);
+    }
+    
+    // 2^(-elapsed / half-life); above 1 for times after the start
+    private double decay(LocalDateTime start, LocalDateTime at) {
+        double elapsed = Duration.between(start, at).toMillis();
+        return Math.pow(2.0, -elapsed / halfLife.toMillis());
+    }
+    
+    // Repeatable read, so every query of the rebuild sees the same snapshot
+    private TransactionTemplate snapshotTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return transactionTemplate;
+    }
+    
+    public record Ranked(long movieId, double score) {
+    }
+    
+    // A review as the held-back events leave it: a null rating when they delete it
+    private record ReviewOutcome(Long movieId, Integer rating, LocalDateTime createdAt) {
+    }
+    
+    private record WatchlistEntry(Long movieId, Long userId) {
+    }
+    
+    /**
+     * The rows of the rebuild's snapshot that held-back events touch: for each review its
+     * state, null when the snapshot does not hold it, and for each watchlist addition
+     * whether the snapshot holds the entry. Must be used inside the load's transaction.
+     */
+    private final class SnapshotRows {
+        
+        private final Map<Long, ReviewState> reviews = new HashMap<>();
+        private final Map<WatchlistEntry, Boolean> watchlist = new HashMap<>();
+        
+        List<DomainEvent> unchecked(List<DomainEvent> events) {
+            List<DomainEvent> unchecked = new ArrayList<>();
+            for (DomainEvent event : events) {
+                boolean checked = switch (event) {
+                    case ReviewCreated created -> reviews.containsKey(created.reviewId());
+                    case ReviewUpdated updated -> reviews.containsKey(updated.reviewId());
+                    case ReviewDeleted deleted -> reviews.containsKey(deleted.reviewId());
+                    case WatchlistAdded added -> watchlist.containsKey(entry(added));
+                    default -> true;
+                };
+                if (!checked) {
+                    unchecked.add(event);
+                }
+            }
+            return unchecked;
+        }
+        
+        void lookUp(List<DomainEvent> events) {
+            Set<Long> reviewIds = new HashSet<>();
+            for (DomainEvent event : events) {
+                switch (event) {
+                    case ReviewCreated created -> reviewIds.add(created.reviewId());
+                    case ReviewUpdated updated -> reviewIds.add(updated.reviewId());
+                    case ReviewDeleted deleted -> reviewIds.add(deleted.reviewId());
+                    case WatchlistAdded added -> watchlist.computeIfAbsent(entry(added),
+                            key -> watchlistRepository.existsByUserIdAndMovieId(key.userId(), key.movieId()));
+                    default -> {
+                    }
+                }
+            }
+            if (!reviewIds.isEmpty()) {
+                reviewIds.forEach(reviewId -> reviews.put(reviewId, null));
+                reviewRepository.findStatesByIdIn(reviewIds).forEach(state -> reviews.put(state.getReviewId(), state));
+            }
+        }
+        
+        ReviewState review(Long reviewId) {
+            return reviews.get(reviewId);
+        }
+        
+        boolean holds(WatchlistAdded added) {
+            return watchlist.get(entry(added));
+        }
+        
+        private WatchlistEntry entry(WatchlistAdded added) {
+            return new WatchlistEntry(added.movieId(), added.userId());
+        }
+    }
+    
+    /**
+     * Scores of movies, kept sorted for reading: a map from movie to its entry and a skip
+     * list of the entries, best first and by id on ties. Writers hold the owner's lock;
+     * readers walk the skip list without one, and drop an entry seen twice while it moved.
+     */
+    private static final class Ranking {
+        
+        // Scores this close to zero are what remains of activity that was taken back
+        private static final double EPSILON = 1e-9;
+        private static final Comparator<Ranked> ORDER = Comparator.comparingDouble(Ranked::score).reversed()
+                .thenComparingLong(Ranked::movieId);
+        
+        private final Map<Long, Ranked> byMovie = new HashMap<>();
+        private final NavigableSet<Ranked> ranked = new ConcurrentSkipListSet<>(ORDER);
+        
+        void put(long movieId, double score) {
+            Ranked entry = new Ranked(movieId, score);
+            Ranked previous = byMovie.put(movieId, entry);
+            if (previous != null) {
+                ranked.remove(previous);
+            }
+            ranked.add(entry);
+        }
+        
+        void add(long movieId, double delta) {
+            Ranked previous = byMovie.get(movieId);
+            double score = (previous != null ? previous.score() : 0.0) + delta;
+            if (score > EPSILON) {
+                put(movieId, score);
+            } else {
+                remove(movieId);
+            }
+        }
+        
+        void remove(long movieId) {
+            Ranked previous = byMovie.remove(movieId);
+            if (previous != null) {
+                ranked.remove(previous);
+            }
+        }
+        
+        List<Ranked> first(int limit, double scale) {
+            List<Ranked> result = new ArrayList<>(limit);
+            Set<Long> seen = new HashSet<>();
+            for (Ranked entry : ranked) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (seen.add(entry.movieId())) {
+                    result.add(scale == 1.0 ? entry : new Ranked(entry.movieId(), entry.score() * scale));
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.response.MovieSuggestionResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.repository.MovieRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the movie catalog, used for ranked keyword search.
+ * <p>
+ * Every field is tokenized into lowercase, accent-free terms. A term's weight in a
+ * movie is the sum of the weights of the fields it occurs in, and a query scores
+ * each movie by weight times inverse document frequency. Every query term must
+ * match, either exactly or as a prefix of an indexed term (at a discount), so
+ * partially typed words still find their titles. A term with no exact or prefix
+ * match falls back to indexed terms within a small edit distance, found through a
+ * trigram index so a typo does not mean scanning the whole vocabulary.
+ * <p>
+ * A small summary of each movie is kept alongside the index so suggestions can be
+ * answered without touching the database. Suggestions match on the title, actors,
+ * director and genre only; description words are searchable but never suggested.
+ * <p>
+ * The index is built from {@link MovieRepository} once the application is ready and
+ * kept in sync by {@link MovieService}; changes made inside a transaction are applied
+ * after it commits. A rebuild pages through the catalog into a fresh index while
+ * searches keep using the current one, and swaps it in with the changes made meanwhile
+ * replayed on top.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MovieSearchIndex {
+    
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float DIRECTOR_WEIGHT = 2.0f;
+    private static final float ACTORS_WEIGHT = 1.5f;
+    private static final float GENRE_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_MATCH_FACTOR = 0.6f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 100;
+    private static final float FUZZY_MATCH_FACTOR = 0.4f;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int LONG_TERM_LENGTH = 8;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    
+    private final MovieRepository movieRepository;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Guarded by the lock; replaced as a whole by a rebuild
+    private Documents documents = new Documents();
+    // Changes applied while a rebuild is loading, replayed onto what it loaded; null otherwise
+    private List<Consumer<Documents>> changedDuringRebuild;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            
+            Documents loaded = new Documents();
+            try {
+                long afterId = 0L;
+                List<Movie> batch;
+                do {
+                    batch = movieRepository.findByIdGreaterThanOrderByIdAsc(afterId,
+                            PageRequest.of(0, REBUILD_BATCH_SIZE));
+                    for (Movie movie : batch) {
+                        loaded.add(movie.getId(), termWeights(movie), toSuggestion(movie));
+                        afterId = movie.getId();
+                    }
+                } while (batch.size() == REBUILD_BATCH_SIZE);
+            } catch (RuntimeException e) {
+                // The current index has every change applied already
+                lock.writeLock().lock();
+                try {
+                    changedDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            
+            lock.writeLock().lock();
+            try {
+                // A change replayed onto a movie whose new state was loaded just writes that state again
+                changedDuringRebuild.forEach(change -> change.accept(loaded));
+                changedDuringRebuild = null;
+                documents = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Search index built - {} movies, {} terms", loaded.termsByMovie.size(), loaded.postings.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    public void index(Movie movie) {
+        long id = movie.getId();
+        Map<String, float[]> weights = termWeights(movie);
+        MovieSuggestionResponse suggestion = toSuggestion(movie);
+        AfterCommit.run(() -> apply(target -> {
+            target.remove(id);
+            target.add(id, weights, suggestion);
+        }));
+    }
+    
+    public void remove(Long movieId) {
+        AfterCommit.run(() -> apply(target -> target.remove(movieId)));
+    }
+    
+    private void apply(Consumer<Documents> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(documents);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the ids of the best matching movies, highest score first.
+     */
+    public List<Long> search(String query, int limit) {
+        return rank(query, limit, false);
+    }
+    
+    /**
+     * Returns summaries of the best matching movies for search-as-you-type, highest score first.
+     */
+    public List<MovieSuggestionResponse> suggest(String query, int limit) {
+        List<Long> ids = rank(query, limit, true);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            // A movie removed since ranking is simply left out
+            return ids.stream()
+                    .map(documents.suggestions::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.termsByMovie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private List<Long> rank(String query, int limit, boolean suggest) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String queryTerm : queryTerms) {
+                Map<Long, Float> termScores = scoreTerm(queryTerm, suggest);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Every query term must match: keep only movies matched so far
+                    Map<Long, Float> intersection = new HashMap<>();
+                    for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                        Float termScore = termScores.get(entry.getKey());
+                        if (termScore != null) {
+                            intersection.put(entry.getKey(), entry.getValue() + termScore);
+                        }
+                    }
+                    scores = intersection;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Float>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.<Long, Float>comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+    
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        
+        String normalized = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    // Best score of one query term per movie: an exact match, or the best prefix match at a discount,
+    // or failing both the closest terms within the allowed edit distance at a larger discount
+    private Map<Long, Float> scoreTerm(String queryTerm, boolean suggest) {
+        Map<Long, Float> termScores = new HashMap<>();
+        NavigableMap<String, PostingList> postings = documents.postings;
+        collectScores(queryTerm, postings.get(queryTerm), 1.0f, suggest, termScores);
+        
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            int expansions = 0;
+            for (Map.Entry<String, PostingList> entry : postings.tailMap(queryTerm, false).entrySet()) {
+                if (!entry.getKey().startsWith(queryTerm) || expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                collectScores(entry.getKey(), entry.getValue(), PREFIX_MATCH_FACTOR, suggest, termScores);
+            }
+        }
+        
+        if (termScores.isEmpty() && queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            int maxDistance = queryTerm.length() >= LONG_TERM_LENGTH ? 2 : 1;
+            for (String candidate : fuzzyCandidates(queryTerm, maxDistance)) {
+                int distance = editDistance(queryTerm, candidate, maxDistance);
+                if (distance <= maxDistance) {
+                    collectScores(candidate, postings.get(candidate), FUZZY_MATCH_FACTOR / distance, suggest,
+                            termScores);
+                }
+            }
+        }
+        return termScores;
+    }
+    
+    // Each edit destroys at most three trigrams, so a term within maxDistance edits
+    // must share all but 3 * maxDistance of the query's trigrams
+    private List<String> fuzzyCandidates(String queryTerm, int maxDistance) {
+        Set<String> queryTrigrams = trigrams(queryTerm);
+        Map<String, Integer> sharedCounts = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<String> terms = documents.termsByTrigram.get(trigram);
+            if (terms != null) {
+                for (String term : terms) {
+                    sharedCounts.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        
+        int minShared = Math.max(1, queryTrigrams.size() - 3 * maxDistance);
+        List<String> candidates = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : sharedCounts.entrySet()) {
+            if (entry.getValue() >= minShared
+                    && Math.abs(entry.getKey().length() - queryTerm.length()) <= maxDistance) {
+                candidates.add(entry.getKey());
+            }
+        }
+        return candidates;
+    }
+    
+    static Set<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+    
+    /**
+     * Levenshtein distance between two terms, or {@code maxDistance + 1} as soon as it
+     * is known to exceed {@code maxDistance}.
+     */
+    static int editDistance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+    
+    private void collectScores(String term, PostingList postingList, float factor, boolean suggest,
+                               Map<Long, Float> termScores) {
+        if (postingList == null) {
+            return;
+        }
+        
+        float idf = (float) Math.log(1.0 + (double) documents.termsByMovie.size() / postingList.size());
+        for (int i = 0; i < postingList.size(); i++) {
+            float weight = suggest ? postingList.suggestWeightAt(i) : postingList.weightAt(i);
+            if (weight > 0) {
+                termScores.merge(postingList.idAt(i), weight * idf * factor, Math::max);
+            }
+        }
+    }
+    
+    // Per term: its weight over every field, then over the fields suggestions match on
+    private Map<String, float[]> termWeights(Movie movie) {
+        Map<String, float[]> weights = new HashMap<>();
+        addField(weights, movie.getTitle(), TITLE_WEIGHT, true);
+        addField(weights, movie.getDirector(), DIRECTOR_WEIGHT, true);
+        addField(weights, movie.getActors(), ACTORS_WEIGHT, true);
+        addField(weights, movie.getGenre(), GENRE_WEIGHT, true);
+        addField(weights, movie.getDescription(), DESCRIPTION_WEIGHT, false);
+        return weights;
+    }
+    
+    private MovieSuggestionResponse toSuggestion(Movie movie) {
+        return new MovieSuggestionResponse(movie.getId(), movie.getTitle(), movie.getReleaseYear(),
+                movie.getType(), movie.getImageUrl());
+    }
+    
+    private void addField(Map<String, float[]> weights, String text, float fieldWeight, boolean suggestable) {
+        // A term counts once per field, however often it repeats there
+        for (String term : new HashSet<>(tokenize(text))) {
+            float[] termWeights = weights.computeIfAbsent(term, key -> new float[2]);
+            termWeights[0] += fieldWeight;
+            if (suggestable) {
+                termWeights[1] += fieldWeight;
+            }
+        }
+    }
+    
+    /**
+     * The index structures, kept together so a rebuild can fill a fresh set while
+     * searches read the current one.
+     */
+    private static final class Documents {
+        
+        // term -> movies containing it; sorted so prefix lookups are a range scan
+        private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+        // movie id -> its indexed terms, needed to unindex a movie on update or delete
+        private final Map<Long, String[]> termsByMovie = new HashMap<>();
+        // trigram -> indexed terms containing it, candidates for typo-tolerant matching
+        private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+        private final Map<Long, MovieSuggestionResponse> suggestions = new HashMap<>();
+        
+        void add(long id, Map<String, float[]> weights, MovieSuggestionResponse suggestion) {
+            String[] terms = new String[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, float[]> entry : weights.entrySet()) {
+                PostingList postingList = postings.get(entry.getKey());
+                if (postingList == null) {
+                    postingList = new PostingList();
+                    postings.put(entry.getKey(), postingList);
+                    for (String trigram : trigrams(entry.getKey())) {
+                        termsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(entry.getKey());
+                    }
+                }
+                postingList.put(id, entry.getValue()[0], entry.getValue()[1]);
+                // Share the key instance held by the term map
+                terms[i++] = postings.ceilingKey(entry.getKey());
+            }
+            termsByMovie.put(id, terms);
+            suggestions.put(id, suggestion);
+        }
+        
+        void remove(long id) {
+            suggestions.remove(id);
+            String[] terms = termsByMovie.remove(id);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                PostingList postingList = postings.get(term);
+                if (postingList != null) {
+                    postingList.remove(id);
+                    if (postingList.isEmpty()) {
+                        postings.remove(term);
+                        removeTrigrams(term);
+                    }
+                }
+            }
+        }
+        
+        private void removeTrigrams(String term) {
+            for (String trigram : trigrams(term)) {
+                Set<String> terms = termsByTrigram.get(trigram);
+                if (terms != null) {
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        termsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+}
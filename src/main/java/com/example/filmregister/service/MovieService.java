@@ -1,49 +1,67 @@
 package com.example.filmregister.service;
 
+import com.example.filmregister.config.CacheConfig;
+import com.example.filmregister.dto.request.MoviePatchRequest;
 import com.example.filmregister.dto.request.MovieRequest;
+import com.example.filmregister.dto.response.CursorPageResponse;
+import com.example.filmregister.dto.response.LeaderboardEntryResponse;
+import com.example.filmregister.dto.response.MovieCardResponse;
 import com.example.filmregister.dto.response.MovieResponse;
+import com.example.filmregister.dto.response.MovieSuggestionResponse;
 import com.example.filmregister.entity.Movie;
 import com.example.filmregister.entity.MovieType;
+import com.example.filmregister.event.DomainEvent.MovieDeleted;
+import com.example.filmregister.exception.BadRequestException;
+import com.example.filmregister.exception.ConflictException;
 import com.example.filmregister.exception.ResourceNotFoundException;
 import com.example.filmregister.repository.MovieRepository;
-import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.MovieRepository.MovieCard;
+import com.example.filmregister.service.MovieLeaderboards.Ranked;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MovieService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_SIMILAR = MovieSimilarityIndex.TOP_K;
+    
     private final MovieRepository movieRepository;
-    private final ReviewRepository reviewRepository;
+    private final MovieSearchIndex movieSearchIndex;
+    private final MovieSimilarityIndex movieSimilarityIndex;
+    private final MovieLeaderboards movieLeaderboards;
+    private final DomainEventBus domainEventBus;
     
     @Transactional
     public MovieResponse createMovie(MovieRequest request, String username) {
         Movie movie = new Movie();
-        movie.setTitle(request.getTitle());
-        movie.setDescription(request.getDescription());
-        movie.setReleaseYear(request.getReleaseYear());
-        movie.setGenre(request.getGenre());
-        movie.setDirector(request.getDirector());
-        movie.setImageUrl(request.getImageUrl());
-        movie.setActors(request.getActors());
-        movie.setType(request.getType() != null ? request.getType() : MovieType.MOVIE);
-        movie.setSeasons(request.getSeasons());
-        movie.setEpisodes(request.getEpisodes());
-        movie.setImdbId(request.getImdbId());
-        movie.setImdbRating(request.getImdbRating());
+        applyRequest(movie, request);
         movie.setCreatedBy(username);
         
         movie = movieRepository.save(movie);
+        movieSearchIndex.index(movie);
         return mapToResponse(movie);
     }
     
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MOVIES_CACHE, key = "#id")
     public MovieResponse getMovie(Long id) {
         Movie movie = movieRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
@@ -51,69 +69,236 @@ public class MovieService {
     }
     
     @Transactional(readOnly = true)
-    public List<MovieResponse> getAllMovies() {
-        return movieRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public CursorPageResponse<MovieResponse> getMoviesPage(MovieType type, String sort, String cursor, int limit) {
+        // The keyset walk reads only card columns; the full rows of the page are then loaded by id
+        return catalogPage(type, sort, cursor, limit,
+                cards -> loadResponses(cards.stream().map(MovieCard::getId).collect(Collectors.toList())));
     }
     
     @Transactional(readOnly = true)
-    public List<MovieResponse> getMoviesByType(MovieType type, String sort) {
-        List<Movie> movies = movieRepository.findByType(type);
-        List<MovieResponse> responses = movies.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public CursorPageResponse<MovieCardResponse> getMovieCardsPage(MovieType type, String sort, String cursor, int limit) {
+        return catalogPage(type, sort, cursor, limit, cards -> cards.stream()
+                .map(MovieService::mapToCard)
+                .collect(Collectors.toList()));
+    }
+    
+    private <T> CursorPageResponse<T> catalogPage(MovieType type, String sort, String cursor, int limit,
+                                                  Function<List<MovieCard>, List<T>> toItems) {
+        CatalogSort catalogSort = CatalogSort.from(sort);
+        CatalogCursor after = cursor != null && !cursor.isBlank() ? CatalogCursor.decode(cursor, catalogSort) : null;
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
         
-        return sortMovies(responses, sort);
+        // Fetch one extra row to learn whether another page follows
+        List<MovieCard> cards = findCatalogSlice(catalogSort, type, after, pageSize + 1);
+        String nextCursor = null;
+        if (cards.size() > pageSize) {
+            cards = cards.subList(0, pageSize);
+            nextCursor = CatalogCursor.after(catalogSort, cards.get(pageSize - 1)).encode();
+        }
+        return new CursorPageResponse<>(toItems.apply(cards), nextCursor);
     }
     
-    @Transactional(readOnly = true)
-    public List<MovieResponse> getAllMoviesSorted(String sort) {
-        List<MovieResponse> responses = movieRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    // A null type lists the whole catalog through the type-free queries and their own indexes
+    private List<MovieCard> findCatalogSlice(CatalogSort sort, MovieType type, CatalogCursor after, int size) {
+        Pageable page = PageRequest.of(0, size);
+        long afterId = after != null ? after.id() : 0L;
         
-        return sortMovies(responses, sort);
+        switch (sort) {
+            case RATING:
+                double afterRating = after != null ? after.doubleKey() : Double.MAX_VALUE;
+                return type != null
+                        ? movieRepository.findCardPageByAverageRating(type, afterRating, afterId, page)
+                        : movieRepository.findCardPageByAverageRating(afterRating, afterId, page);
+            case REVIEWS:
+                long afterCount = after != null ? after.longKey() : Long.MAX_VALUE;
+                return type != null
+                        ? movieRepository.findCardPageByReviewCount(type, afterCount, afterId, page)
+                        : movieRepository.findCardPageByReviewCount(afterCount, afterId, page);
+            case IMDB:
+                return findImdbSlice(type, after, size);
+            default:
+                return type != null
+                        ? movieRepository.findCardPageById(type, afterId, page)
+                        : movieRepository.findCardPageById(afterId, page);
+        }
     }
     
-    private List<MovieResponse> sortMovies(List<MovieResponse> movies, String sort) {
-        if (sort == null) {
-            return movies;
+    private List<MovieCard> findImdbSlice(MovieType type, CatalogCursor after, int size) {
+        if (after != null && !after.hasKey()) {
+            // Already past the rated titles
+            return findUnratedSlice(type, after.id(), size);
         }
         
-        switch (sort.toLowerCase()) {
-            case "rating":
-                return movies.stream()
-                        .sorted(Comparator.comparing(MovieResponse::getAverageRating, 
-                                Comparator.nullsLast(Comparator.reverseOrder())))
-                        .collect(Collectors.toList());
-            case "reviews":
-                return movies.stream()
-                        .sorted(Comparator.comparing(MovieResponse::getReviewCount, 
-                                Comparator.nullsLast(Comparator.reverseOrder())))
-                        .collect(Collectors.toList());
-            case "imdb":
-                return movies.stream()
-                        .sorted(Comparator.comparing(MovieResponse::getImdbRating, 
-                                Comparator.nullsLast(Comparator.reverseOrder())))
-                        .collect(Collectors.toList());
-            default:
-                return movies;
+        double afterRating = after != null ? after.doubleKey() : Double.MAX_VALUE;
+        long afterId = after != null ? after.id() : 0L;
+        Pageable page = PageRequest.of(0, size);
+        List<MovieCard> cards = new ArrayList<>(type != null
+                ? movieRepository.findCardPageByImdbRating(type, afterRating, afterId, page)
+                : movieRepository.findCardPageByImdbRating(afterRating, afterId, page));
+        if (cards.size() < size) {
+            cards.addAll(findUnratedSlice(type, 0L, size - cards.size()));
         }
+        return cards;
+    }
+    
+    private List<MovieCard> findUnratedSlice(MovieType type, long afterId, int size) {
+        Pageable page = PageRequest.of(0, size);
+        return type != null
+                ? movieRepository.findCardPageWithoutImdbRating(type, afterId, page)
+                : movieRepository.findCardPageWithoutImdbRating(afterId, page);
     }
     
     @Transactional(readOnly = true)
     public List<MovieResponse> searchMovies(String keyword) {
-        return movieRepository.searchMovies(keyword).stream()
-                .map(this::mapToResponse)
+        // Rank with the in-memory index, then load only the matching rows
+        return loadResponses(movieSearchIndex.search(keyword, MAX_SEARCH_RESULTS));
+    }
+    
+    // Loads the full rows for the given ids, keeping their order and skipping movies deleted meanwhile
+    private List<MovieResponse> loadResponses(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, Movie> moviesById = movieRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        return ids.stream()
+                .map(moviesById::get)
+                .filter(Objects::nonNull)
+                .map(MovieService::mapToResponse)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional(readOnly = true)
+    public List<MovieCardResponse> searchMovieCards(String keyword) {
+        List<Long> ids = movieSearchIndex.search(keyword, MAX_SEARCH_RESULTS);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, MovieCard> cardsById = movieRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(MovieCard::getId, Function.identity()));
+        return ids.stream()
+                .map(cardsById::get)
+                .filter(Objects::nonNull)
+                .map(MovieService::mapToCard)
+                .collect(Collectors.toList());
+    }
+    
+    public List<MovieSuggestionResponse> suggestMovies(String query, int limit) {
+        // Answered entirely from the search index, no database round trip per keystroke
+        return movieSearchIndex.suggest(query, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<MovieCardResponse> getSimilarMovies(Long id, int limit) {
+        if (!movieRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Movie not found with id: " + id);
+        }
+        // Neighbours come precomputed from the similarity index, best first
+        List<Long> ids = movieSimilarityIndex.similarMovieIds(id, Math.max(1, Math.min(limit, MAX_SIMILAR)));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, MovieCard> cardsById = movieRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(MovieCard::getId, Function.identity()));
+        return ids.stream()
+                .map(cardsById::get)
+                .filter(Objects::nonNull)
+                .map(MovieService::mapToCard)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public List<LeaderboardEntryResponse> getTopMovies(int limit) {
+        return toLeaderboard(movieLeaderboards.top(Math.max(1, Math.min(limit, MovieLeaderboards.MAX_LIMIT))));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<LeaderboardEntryResponse> getTrendingMovies(int limit) {
+        return toLeaderboard(movieLeaderboards.trending(Math.max(1, Math.min(limit, MovieLeaderboards.MAX_LIMIT))));
+    }
+    
+    // The ranking is held in memory; only the cards are read, skipping movies deleted meanwhile
+    private List<LeaderboardEntryResponse> toLeaderboard(List<Ranked> ranking) {
+        if (ranking.isEmpty()) {
+            return List.of();
+        }
+        
+        List<Long> ids = ranking.stream().map(Ranked::movieId).collect(Collectors.toList());
+        Map<Long, MovieCard> cardsById = movieRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(MovieCard::getId, Function.identity()));
+        List<LeaderboardEntryResponse> entries = new ArrayList<>(ranking.size());
+        for (Ranked ranked : ranking) {
+            MovieCard card = cardsById.get(ranked.movieId());
+            if (card != null) {
+                entries.add(new LeaderboardEntryResponse(entries.size() + 1, ranked.score(), mapToCard(card)));
+            }
+        }
+        return entries;
+    }
+    
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.MOVIES_CACHE, key = "#id")
     public MovieResponse updateMovie(Long id, MovieRequest request) {
+        Movie movie = findForUpdate(id, request.getVersion());
+        applyRequest(movie, request);
+        return saveUpdated(movie);
+    }
+    
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.MOVIES_CACHE, key = "#id")
+    public MovieResponse patchMovie(Long id, MoviePatchRequest request) {
+        Movie movie = findForUpdate(id, request.getVersion());
+        setIfPresent(request.getTitle(), movie::setTitle);
+        setIfPresent(request.getDescription(), movie::setDescription);
+        setIfPresent(request.getReleaseYear(), movie::setReleaseYear);
+        setIfPresent(request.getGenre(), movie::setGenre);
+        setIfPresent(request.getDirector(), movie::setDirector);
+        setIfPresent(request.getImageUrl(), movie::setImageUrl);
+        setIfPresent(request.getActors(), movie::setActors);
+        setIfPresent(request.getType(), movie::setType);
+        setIfPresent(request.getSeasons(), movie::setSeasons);
+        setIfPresent(request.getEpisodes(), movie::setEpisodes);
+        setIfPresent(request.getImdbId(), movie::setImdbId);
+        setIfPresent(request.getImdbRating(), movie::setImdbRating);
+        return saveUpdated(movie);
+    }
+    
+    // Every edit names the version it was based on, so concurrent editors cannot overwrite each other
+    private Movie findForUpdate(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            throw new BadRequestException("Version is required, send the version of the movie last read");
+        }
         Movie movie = movieRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
-        
+        if (!expectedVersion.equals(movie.getVersion())) {
+            throw new ConflictException("Movie " + id + " was modified by someone else, reload it and retry");
+        }
+        return movie;
+    }
+    
+    private MovieResponse saveUpdated(Movie movie) {
+        // Flushed here so the response carries the incremented version. @DynamicUpdate
+        // limits the statement to the columns that actually changed.
+        movie = movieRepository.saveAndFlush(movie);
+        movieSearchIndex.index(movie);
+        return mapToResponse(movie);
+    }
+    
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.MOVIES_CACHE, key = "#id")
+    public void deleteMovie(Long id) {
+        Movie movie = movieRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
+        movieRepository.delete(movie);
+        movieSearchIndex.remove(id);
+        domainEventBus.publish(new MovieDeleted(id, LocalDateTime.now()));
+    }
+    
+    // Shared by create, update and the bulk import; a missing type keeps the current one
+    static void applyRequest(Movie movie, MovieRequest request) {
         movie.setTitle(request.getTitle());
         movie.setDescription(request.getDescription());
         movie.setReleaseYear(request.getReleaseYear());
@@ -128,28 +313,18 @@ public class MovieService {
         movie.setEpisodes(request.getEpisodes());
         movie.setImdbId(request.getImdbId());
         movie.setImdbRating(request.getImdbRating());
-        
-        movie = movieRepository.save(movie);
-        return mapToResponse(movie);
     }
     
-    @Transactional
-    public void deleteMovie(Long id) {
-        Movie movie = movieRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
-        movieRepository.delete(movie);
+    private static <T> void setIfPresent(T value, Consumer<T> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
     }
     
-    private MovieResponse mapToResponse(Movie movie) {
-        // Calculate average rating and review count
-        List<com.example.filmregister.entity.Review> reviews = reviewRepository.findByMovieId(movie.getId());
-        Double averageRating = null;
-        if (!reviews.isEmpty()) {
-            averageRating = reviews.stream()
-                    .mapToInt(com.example.filmregister.entity.Review::getRating)
-                    .average()
-                    .orElse(0.0);
-        }
+    static MovieResponse mapToResponse(Movie movie) {
+        // Rating aggregates are precomputed on the movie row by ReviewService
+        long reviewCount = movie.getReviewCount() != null ? movie.getReviewCount() : 0L;
+        Double averageRating = reviewCount > 0 ? movie.getAverageRating() : null;
         
         MovieResponse response = new MovieResponse();
         response.setId(movie.getId());
@@ -169,8 +344,25 @@ public class MovieService {
         response.setCreatedAt(movie.getCreatedAt());
         response.setUpdatedAt(movie.getUpdatedAt());
         response.setAverageRating(averageRating);
-        response.setReviewCount((long) reviews.size());
+        response.setReviewCount(reviewCount);
+        response.setVersion(movie.getVersion());
         
         return response;
     }
+    
+    // Shared with the watchlist's card view
+    static MovieCardResponse mapToCard(MovieCard card) {
+        long reviewCount = card.getReviewCount() != null ? card.getReviewCount() : 0L;
+        return new MovieCardResponse(
+                card.getId(),
+                card.getTitle(),
+                card.getReleaseYear(),
+                card.getType(),
+                card.getImageUrl(),
+                card.getImdbRating(),
+                reviewCount > 0 ? card.getAverageRating() : null,
+                reviewCount,
+                card.getVersion()
+        );
+    }
 }
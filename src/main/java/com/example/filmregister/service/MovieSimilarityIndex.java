@@ -0,0 +1,388 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.event.DomainEvent;
+import com.example.filmregister.event.DomainEvent.MovieDeleted;
+import com.example.filmregister.event.DomainEvent.ReviewCreated;
+import com.example.filmregister.event.DomainEvent.ReviewDeleted;
+import com.example.filmregister.event.DomainEvent.ReviewUpdated;
+import com.example.filmregister.event.DomainEvent.WatchlistAdded;
+import com.example.filmregister.event.DomainEvent.WatchlistRemoved;
+import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.ReviewRepository.RatingSignal;
+import com.example.filmregister.repository.WatchlistRepository;
+import com.example.filmregister.repository.WatchlistRepository.WatchSignal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Item-to-item similarities between movies, answering "people who liked this also liked".
+ * <p>
+ * Every movie is a sparse vector over users. A review contributes its rating centred on
+ * the middle of the 1-10 scale, so a poor rating counts against similarity, and a
+ * watchlist entry adds a smaller positive signal. Two movies score the cosine of their
+ * vectors, shrunk towards zero when few users share them, and each movie keeps its
+ * {@value #TOP_K} best positively scored neighbours. Centring on a fixed midpoint rather
+ * than on each user's mean keeps a change to one movie from shifting the vectors of every
+ * other movie its reviewers rated, which is what allows updating one movie at a time.
+ * <p>
+ * The vectors are held in both orientations, so the neighbours of a movie are found by
+ * walking its users' other movies and only movies that share a user are ever scored.
+ * Review and watchlist events mark the movies whose vectors changed; {@link #refresh()}
+ * reloads just those vectors, recomputes their neighbours and patches the new scores into
+ * the lists of the movies they share users with. A list that loses an entry this way is
+ * refilled only when its own movie is recomputed, which {@link #rebuild()} does for all.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MovieSimilarityIndex implements DomainEventListener {
+    
+    static final int TOP_K = 20;
+    private static final float RATING_MIDPOINT = 5.5f;
+    private static final float RATING_HALF_RANGE = 4.5f;
+    static final float WATCHLIST_WEIGHT = 0.5f;
+    // Scores of pairs shared by n users are scaled by n / (n + SHRINKAGE)
+    private static final float SHRINKAGE = 5.0f;
+    // Accounts with more movies than this (bulk or test accounts) are skipped when walking
+    // neighbours: their cost grows with the square of their size and they carry little taste
+    private static final int MAX_MOVIES_PER_USER = 2000;
+    private static final int RELOAD_BATCH_SIZE = 500;
+    
+    private final ReviewRepository reviewRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    // Serializes the build and refresh jobs; a lock rather than a monitor, so a virtual
+    // thread streaming from JDBC while holding it does not pin its carrier
+    private final ReentrantLock jobLock = new ReentrantLock();
+    // Guarded by jobLock; only the build and refresh jobs read or write the vectors
+    private final Map<Long, SparseVector> usersByMovie = new HashMap<>();
+    private final Map<Long, SparseVector> moviesByUser = new HashMap<>();
+    // Read by request threads; every list is immutable and replaced as a whole
+    private final Map<Long, Neighbours> neighbours = new ConcurrentHashMap<>();
+    private final Set<Long> touched = ConcurrentHashMap.newKeySet();
+    private volatile boolean built;
+    
+    /**
+     * Queues the movies whose reviews or watchlist entries changed for the next refresh.
+     */
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            switch (event) {
+                case ReviewCreated created -> touched.add(created.movieId());
+                case ReviewUpdated updated -> {
+                    if (updated.rating() != updated.previousRating()) {
+                        touched.add(updated.movieId());
+                    }
+                }
+                case ReviewDeleted deleted -> touched.add(deleted.movieId());
+                case WatchlistAdded added -> touched.add(added.movieId());
+                case WatchlistRemoved removed -> touched.add(removed.movieId());
+                case MovieDeleted deleted -> touched.add(deleted.movieId());
+            }
+        }
+    }
+    
+    /**
+     * Returns the ids of the movies most similar to the given one, best first.
+     */
+    public List<Long> similarMovieIds(Long movieId, int limit) {
+        Neighbours list = neighbours.get(movieId);
+        if (list == null) {
+            return List.of();
+        }
+        int size = Math.min(limit, list.ids.length);
+        List<Long> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(list.ids[i]);
+        }
+        return ids;
+    }
+    
+    /**
+     * Calls the visitor with each neighbour of the movie and its score, best first.
+     */
+    public void forEachNeighbour(Long movieId, NeighbourVisitor visitor) {
+        Neighbours list = neighbours.get(movieId);
+        if (list == null) {
+            return;
+        }
+        for (int i = 0; i < list.ids.length; i++) {
+            visitor.visit(list.ids[i], list.scores[i]);
+        }
+    }
+    
+    public boolean isBuilt() {
+        return built;
+    }
+    
+    public void rebuild() {
+        jobLock.lock();
+        try {
+            long start = System.nanoTime();
+            // Anything touched so far is covered by the full load below
+            touched.clear();
+            
+            Map<Long, SparseVector> loadedByMovie = new HashMap<>();
+            Map<Long, SparseVector> loadedByUser = new HashMap<>();
+            readOnlyTransaction().executeWithoutResult(status -> {
+                try (Stream<RatingSignal> ratings = reviewRepository.streamRatingSignals()) {
+                    ratings.forEach(rating -> addSignal(loadedByMovie, loadedByUser,
+                            rating.getMovieId(), rating.getUserId(), ratingWeight(rating.getRating())));
+                }
+                try (Stream<WatchSignal> watched = watchlistRepository.streamWatchSignals()) {
+                    watched.forEach(entry -> addSignal(loadedByMovie, loadedByUser,
+                            entry.getMovieId(), entry.getUserId(), WATCHLIST_WEIGHT));
+                }
+            });
+            usersByMovie.clear();
+            usersByMovie.putAll(loadedByMovie);
+            moviesByUser.clear();
+            moviesByUser.putAll(loadedByUser);
+            
+            Map<Long, Neighbours> computed = new HashMap<>();
+            SimilarityAccumulator scratch = new SimilarityAccumulator(1024);
+            for (Map.Entry<Long, SparseVector> movie : usersByMovie.entrySet()) {
+                scratch.clear();
+                accumulate(movie.getKey(), movie.getValue(), scratch);
+                Neighbours top = topNeighbours(scratch, movie.getValue().norm());
+                if (top.ids.length > 0) {
+                    computed.put(movie.getKey(), top);
+                }
+            }
+            neighbours.keySet().retainAll(computed.keySet());
+            neighbours.putAll(computed);
+            built = true;
+            
+            log.info("Built movie similarities for {} movies and {} users in {} ms",
+                    usersByMovie.size(), moviesByUser.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            jobLock.unlock();
+        }
+    }
+    
+    /**
+     * Recomputes the movies touched since the last refresh. Does nothing until the
+     * index has been built. Returns the number of movies reprocessed.
+     */
+    public int refresh() {
+        jobLock.lock();
+        try {
+            if (!built || touched.isEmpty()) {
+                return 0;
+            }
+            List<Long> movieIds = new ArrayList<>(touched);
+            touched.removeAll(movieIds);
+            Map<Long, SparseVector> reloaded = loadVectors(movieIds);
+            
+            SimilarityAccumulator previous = new SimilarityAccumulator(1024);
+            SimilarityAccumulator current = new SimilarityAccumulator(1024);
+            for (Long movieId : movieIds) {
+                // Movies that shared users with the old vector may no longer share any
+                previous.clear();
+                SparseVector oldVector = usersByMovie.get(movieId);
+                if (oldVector != null) {
+                    accumulate(movieId, oldVector, previous);
+                }
+                
+                SparseVector vector = reloaded.getOrDefault(movieId, new SparseVector());
+                replaceVector(movieId, vector);
+                current.clear();
+                accumulate(movieId, vector, current);
+                
+                Neighbours top = topNeighbours(current, vector.norm());
+                if (top.ids.length > 0) {
+                    neighbours.put(movieId, top);
+                } else {
+                    neighbours.remove(movieId);
+                }
+                
+                // Similarity is symmetric: patch this movie's new score into the other side
+                for (int i = 0; i < current.size(); i++) {
+                    patch(current.keyAt(i), movieId, score(current, i, vector.norm()));
+                }
+                for (int i = 0; i < previous.size(); i++) {
+                    if (!current.contains(previous.keyAt(i))) {
+                        patch(previous.keyAt(i), movieId, 0f);
+                    }
+                }
+            }
+            return movieIds.size();
+        } finally {
+            jobLock.unlock();
+        }
+    }
+    
+    private Map<Long, SparseVector> loadVectors(List<Long> movieIds) {
+        Map<Long, SparseVector> vectors = new HashMap<>();
+        Map<Long, SparseVector> unusedByUser = new HashMap<>();
+        readOnlyTransaction().executeWithoutResult(status -> {
+            for (int from = 0; from < movieIds.size(); from += RELOAD_BATCH_SIZE) {
+                List<Long> batch = movieIds.subList(from, Math.min(from + RELOAD_BATCH_SIZE, movieIds.size()));
+                for (RatingSignal rating : reviewRepository.findRatingSignalsByMovieIdIn(batch)) {
+                    addSignal(vectors, unusedByUser, rating.getMovieId(), rating.getUserId(),
+                            ratingWeight(rating.getRating()));
+                }
+                for (WatchSignal entry : watchlistRepository.findWatchSignalsByMovieIdIn(batch)) {
+                    addSignal(vectors, unusedByUser, entry.getMovieId(), entry.getUserId(), WATCHLIST_WEIGHT);
+                }
+            }
+        });
+        return vectors;
+    }
+    
+    private void replaceVector(Long movieId, SparseVector vector) {
+        SparseVector old = usersByMovie.remove(movieId);
+        if (old != null) {
+            for (int i = 0; i < old.size(); i++) {
+                SparseVector movies = moviesByUser.get(old.keyAt(i));
+                if (movies != null) {
+                    movies.remove(movieId);
+                    if (movies.isEmpty()) {
+                        moviesByUser.remove(old.keyAt(i));
+                    }
+                }
+            }
+        }
+        if (vector.isEmpty()) {
+            return;
+        }
+        usersByMovie.put(movieId, vector);
+        for (int i = 0; i < vector.size(); i++) {
+            moviesByUser.computeIfAbsent(vector.keyAt(i), key -> new SparseVector()).put(movieId, vector.valueAt(i));
+        }
+    }
+    
+    // Dot products of the movie with every other movie one of its users has a signal for
+    private void accumulate(long movieId, SparseVector users, SimilarityAccumulator scratch) {
+        for (int u = 0; u < users.size(); u++) {
+            SparseVector movies = moviesByUser.get(users.keyAt(u));
+            if (movies == null || movies.size() > MAX_MOVIES_PER_USER) {
+                continue;
+            }
+            float weight = users.valueAt(u);
+            for (int m = 0; m < movies.size(); m++) {
+                long other = movies.keyAt(m);
+                if (other != movieId) {
+                    scratch.add(other, weight * movies.valueAt(m));
+                }
+            }
+        }
+    }
+    
+    private float score(SimilarityAccumulator scratch, int index, float norm) {
+        SparseVector other = usersByMovie.get(scratch.keyAt(index));
+        if (other == null || norm == 0f || other.norm() == 0f) {
+            return 0f;
+        }
+        int shared = scratch.countAt(index);
+        float cosine = scratch.dotAt(index) / (norm * other.norm());
+        return cosine * shared / (shared + SHRINKAGE);
+    }
+    
+    private Neighbours topNeighbours(SimilarityAccumulator scratch, float norm) {
+        long[] ids = new long[TOP_K];
+        float[] scores = new float[TOP_K];
+        int size = 0;
+        for (int i = 0; i < scratch.size(); i++) {
+            float score = score(scratch, i, norm);
+            if (score <= 0f || (size == TOP_K && score <= scores[TOP_K - 1])) {
+                continue;
+            }
+            int at = size < TOP_K ? size++ : TOP_K - 1;
+            while (at > 0 && scores[at - 1] < score) {
+                ids[at] = ids[at - 1];
+                scores[at] = scores[at - 1];
+                at--;
+            }
+            ids[at] = scratch.keyAt(i);
+            scores[at] = score;
+        }
+        return new Neighbours(Arrays.copyOf(ids, size), Arrays.copyOf(scores, size));
+    }
+    
+    private void patch(long movieId, long neighbourId, float score) {
+        neighbours.compute(movieId, (key, list) -> {
+            Neighbours updated = (list != null ? list : Neighbours.NONE).with(neighbourId, score);
+            return updated.ids.length > 0 ? updated : null;
+        });
+    }
+    
+    private static void addSignal(Map<Long, SparseVector> byMovie, Map<Long, SparseVector> byUser,
+                                  Long movieId, Long userId, float weight) {
+        byMovie.computeIfAbsent(movieId, key -> new SparseVector()).add(userId, weight);
+        byUser.computeIfAbsent(userId, key -> new SparseVector()).add(movieId, weight);
+    }
+    
+    // A review's signal: the rating centred on the middle of the scale, in [-1, 1]
+    static float ratingWeight(Integer rating) {
+        return (rating - RATING_MIDPOINT) / RATING_HALF_RANGE;
+    }
+    
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+    
+    @FunctionalInterface
+    public interface NeighbourVisitor {
+        void visit(long movieId, float score);
+    }
+    
+    /**
+     * Neighbour ids with their scores, best first.
+     */
+    private static final class Neighbours {
+        
+        static final Neighbours NONE = new Neighbours(new long[0], new float[0]);
+        
+        final long[] ids;
+        final float[] scores;
+        
+        Neighbours(long[] ids, float[] scores) {
+            this.ids = ids;
+            this.scores = scores;
+        }
+        
+        // Copy with the neighbour's score replaced; a score of zero or less drops it
+        Neighbours with(long id, float score) {
+            long[] newIds = new long[ids.length + 1];
+            float[] newScores = new float[ids.length + 1];
+            int size = 0;
+            boolean placed = score <= 0f;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    continue;
+                }
+                if (!placed && score > scores[i]) {
+                    newIds[size] = id;
+                    newScores[size++] = score;
+                    placed = true;
+                }
+                newIds[size] = ids[i];
+                newScores[size++] = scores[i];
+            }
+            if (!placed) {
+                newIds[size] = id;
+                newScores[size++] = score;
+            }
+            size = Math.min(size, TOP_K);
+            return new Neighbours(Arrays.copyOf(newIds, size), Arrays.copyOf(newScores, size));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.filmregister.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@link MovieSimilarityIndex} current: a full build once the application is
+ * ready (after startup runners have loaded their data), incremental refreshes of the
+ * touched movies at a fixed delay, and a nightly full rebuild.
+ */
+@Component
+@ConditionalOnProperty(name = "recommendations.job.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class MovieSimilarityJob {
+    
+    private final MovieSimilarityIndex movieSimilarityIndex;
+    
+    // Off the startup thread; similar-movie lists are empty until it completes
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        movieSimilarityIndex.rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${recommendations.job.refresh-interval:5m}",
+               initialDelayString = "${recommendations.job.refresh-interval:5m}")
+    public void refresh() {
+        long start = System.nanoTime();
+        int refreshed = movieSimilarityIndex.refresh();
+        if (refreshed > 0) {
+            log.debug("Refreshed similarities of {} movies in {} ms", refreshed, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+    
+    @Scheduled(cron = "${recommendations.job.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        movieSimilarityIndex.rebuild();
+    }
+}
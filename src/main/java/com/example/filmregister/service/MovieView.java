@@ -0,0 +1,17 @@
+package com.example.filmregister.service;
+
+/**
+ * Representations of a movie in list responses. {@link #CARD} carries only what a
+ * listing tile shows and is read from the database without the long text columns.
+ */
+public enum MovieView {
+    FULL,
+    CARD;
+    
+    public static MovieView from(String view) {
+        if (view != null && view.equalsIgnoreCase("card")) {
+            return CARD;
+        }
+        return FULL;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.filmregister.service;
+
+import java.util.Arrays;
+
+/**
+ * Movie ids containing one search term, with the term's weight in each movie and its
+ * weight counting only the fields suggestions match on. Kept as parallel primitive
+ * arrays sorted by id so a large catalog does not pay for a boxed map entry per posting.
+ */
+class PostingList {
+    
+    private long[] ids = new long[4];
+    private float[] weights = new float[4];
+    private float[] suggestWeights = new float[4];
+    private int size;
+    
+    void put(long id, float weight, float suggestWeight) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            weights[index] = weight;
+            suggestWeights[index] = suggestWeight;
+            return;
+        }
+        
+        int insertAt = -index - 1;
+        if (size == ids.length) {
+            int capacity = size + (size >> 1) + 1;
+            ids = Arrays.copyOf(ids, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            suggestWeights = Arrays.copyOf(suggestWeights, capacity);
+        }
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+        System.arraycopy(suggestWeights, insertAt, suggestWeights, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        weights[insertAt] = weight;
+        suggestWeights[insertAt] = suggestWeight;
+        size++;
+    }
+    
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+        System.arraycopy(suggestWeights, index + 1, suggestWeights, index, size - index - 1);
+        size--;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    long idAt(int index) {
+        return ids[index];
+    }
+    
+    float weightAt(int index) {
+        return weights[index];
+    }
+    
+    float suggestWeightAt(int index) {
+        return suggestWeights[index];
+    }
+}
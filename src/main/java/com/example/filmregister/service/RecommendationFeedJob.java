@@ -0,0 +1,34 @@
+package com.example.filmregister.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes the queued recommendation feeds at a fixed delay, and queues every cached
+ * feed nightly, after the similarity rebuild, so feeds pick up the fresh neighbours.
+ */
+@Component
+@ConditionalOnProperty(name = "recommendations.job.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationFeedJob {
+    
+    private final RecommendationService recommendationService;
+    
+    @Scheduled(fixedDelayString = "${recommendations.feed.refresh-interval:30s}")
+    public void refresh() {
+        long start = System.nanoTime();
+        int computed = recommendationService.refreshFeeds();
+        if (computed > 0) {
+            log.debug("Refreshed {} recommendation feeds in {} ms", computed, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+    
+    @Scheduled(cron = "${recommendations.feed.rebuild-cron:0 0 4 * * *}")
+    public void scheduleAll() {
+        recommendationService.scheduleCachedFeeds();
+    }
+}
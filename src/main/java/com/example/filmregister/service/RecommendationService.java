@@ -0,0 +1,355 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.config.CacheConfig;
+import com.example.filmregister.dto.response.MovieCardResponse;
+import com.example.filmregister.event.DomainEvent;
+import com.example.filmregister.event.DomainEvent.MovieDeleted;
+import com.example.filmregister.event.DomainEvent.ReviewCreated;
+import com.example.filmregister.event.DomainEvent.ReviewDeleted;
+import com.example.filmregister.event.DomainEvent.ReviewUpdated;
+import com.example.filmregister.event.DomainEvent.WatchlistAdded;
+import com.example.filmregister.event.DomainEvent.WatchlistRemoved;
+import com.example.filmregister.repository.MovieRepository;
+import com.example.filmregister.repository.MovieRepository.MovieCard;
+import com.example.filmregister.repository.MovieRepository.MovieTraits;
+import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.ReviewRepository.RatedMovie;
+import com.example.filmregister.repository.WatchlistRepository;
+import com.example.filmregister.repository.WatchlistRepository.WatchedMovie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Personal "for you" feeds: ranked movies a user has neither reviewed nor put on their
+ * watchlist. A candidate's score blends
+ * <ul>
+ *   <li>its similarity ({@link MovieSimilarityIndex}) to the movies the user rated well or
+ *       watchlisted, weighted by how much they liked each of them</li>
+ *   <li>the user's affinity for its genre and director: their mean signal for that genre or
+ *       director, shrunk towards neutral while it rests on few movies</li>
+ *   <li>global popularity, from its review count (log scaled) and average rating</li>
+ * </ul>
+ * Feeds are computed in the background by {@link #refreshFeeds()} and kept in a bounded
+ * cache of recently active users, so serving one costs a cache lookup and a single query
+ * for the cards. A user without a cached feed gets the popularity ranking, minus the movies
+ * they reviewed or watchlisted, and is queued for the next run; a review or watchlist event
+ * queues a user whose feed is cached.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationService implements DomainEventListener {
+    
+    static final int FEED_SIZE = 100;
+    private static final int MAX_LIMIT = 50;
+    // Most reviewed movies, the candidates every feed considers besides the neighbours
+    private static final int POPULAR_POOL_SIZE = 500;
+    // Neighbour candidates ranked lower than this are not worth loading
+    private static final int MAX_NEIGHBOUR_CANDIDATES = 300;
+    private static final double NEIGHBOUR_WEIGHT = 1.0;
+    private static final double GENRE_WEIGHT = 0.4;
+    private static final double DIRECTOR_WEIGHT = 0.3;
+    private static final double POPULARITY_WEIGHT = 0.2;
+    // An affinity from n movies is scaled by n / (n + AFFINITY_SHRINKAGE)
+    private static final double AFFINITY_SHRINKAGE = 2.0;
+    
+    private final ReviewRepository reviewRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final MovieRepository movieRepository;
+    private final MovieSimilarityIndex movieSimilarityIndex;
+    private final CacheManager cacheManager;
+    
+    @Value("${recommendations.feed.batch-size:500}")
+    private int batchSize;
+    
+    // Users whose feed the next run computes
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private volatile PopularPool popular;
+    
+    @Transactional(readOnly = true)
+    public List<MovieCardResponse> getRecommendations(Long userId, int limit) {
+        long[] feed = feeds().get(userId, long[].class);
+        if (feed == null) {
+            // Computed by the next background run; popular movies stand in until then
+            pending.add(userId);
+            feed = unseen(popularPool().ranking(), userId);
+        }
+        
+        int size = Math.min(feed.length, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        if (size == 0) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(feed[i]);
+        }
+        
+        Map<Long, MovieCard> cardsById = movieRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(MovieCard::getId, Function.identity()));
+        return ids.stream()
+                .map(cardsById::get)
+                .filter(Objects::nonNull)
+                .map(MovieService::mapToCard)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Queues the cached feeds of users whose reviews or watchlist changed. Users without a
+     * cached feed are left alone; theirs is computed after their next request.
+     */
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<Long> userIds = new HashSet<>();
+        for (DomainEvent event : events) {
+            switch (event) {
+                case ReviewCreated created -> userIds.add(created.userId());
+                case ReviewUpdated updated -> {
+                    if (updated.rating() != updated.previousRating()) {
+                        userIds.add(updated.userId());
+                    }
+                }
+                case ReviewDeleted deleted -> userIds.add(deleted.userId());
+                case WatchlistAdded added -> userIds.add(added.userId());
+                case WatchlistRemoved removed -> userIds.add(removed.userId());
+                // Deleted movies drop out of served feeds when their cards are looked up
+                case MovieDeleted deleted -> {
+                }
+            }
+        }
+        for (Long userId : userIds) {
+            if (hasCachedFeed(userId)) {
+                pending.add(userId);
+            }
+        }
+    }
+    
+    // Unlike a get, containsKey on the Caffeine map is not an access, so events alone never
+    // keep an idle user's feed from expiring
+    private boolean hasCachedFeed(Long userId) {
+        if (feeds().getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> cache) {
+            return cache.asMap().containsKey(userId);
+        }
+        return feeds().get(userId) != null;
+    }
+    
+    /**
+     * Queues every cached feed, so the next runs recompute them against fresh neighbours
+     * and popularity.
+     */
+    public void scheduleCachedFeeds() {
+        if (feeds().getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> cache) {
+            cache.asMap().keySet().forEach(key -> pending.add((Long) key));
+        }
+    }
+    
+    /**
+     * Reloads the popularity ranking and computes the feeds of up to one batch of queued
+     * users. Returns the number of feeds computed.
+     */
+    public int refreshFeeds() {
+        popular = loadPopularPool();
+        
+        int computed = 0;
+        Iterator<Long> it = pending.iterator();
+        while (it.hasNext() && computed < batchSize) {
+            Long userId = it.next();
+            it.remove();
+            feeds().put(userId, computeFeed(userId));
+            computed++;
+        }
+        if (computed > 0) {
+            log.debug("Computed {} recommendation feeds, {} still queued", computed, pending.size());
+        }
+        return computed;
+    }
+    
+    private long[] unseen(long[] ranking, Long userId) {
+        Set<Long> seen = new HashSet<>(reviewRepository.findMovieIdsByUserId(userId));
+        seen.addAll(watchlistRepository.findMovieIdsByUserId(userId));
+        return seen.isEmpty() ? ranking : Arrays.stream(ranking).filter(id -> !seen.contains(id)).toArray();
+    }
+    
+    private long[] computeFeed(Long userId) {
+        PopularPool pool = popularPool();
+        List<RatedMovie> rated = reviewRepository.findRatedMoviesByUserId(userId);
+        List<WatchedMovie> watched = watchlistRepository.findWatchedMoviesByUserId(userId);
+        if (rated.isEmpty() && watched.isEmpty()) {
+            return pool.ranking();
+        }
+        
+        Taste taste = new Taste();
+        SimilarityAccumulator neighbours = new SimilarityAccumulator(256);
+        for (RatedMovie movie : rated) {
+            float signal = MovieSimilarityIndex.ratingWeight(movie.getRating());
+            taste.add(movie.getMovieId(), movie.getGenre(), movie.getDirector(), signal);
+            addNeighbours(neighbours, movie.getMovieId(), signal);
+        }
+        for (WatchedMovie movie : watched) {
+            taste.add(movie.getMovieId(), movie.getGenre(), movie.getDirector(), MovieSimilarityIndex.WATCHLIST_WEIGHT);
+            addNeighbours(neighbours, movie.getMovieId(), MovieSimilarityIndex.WATCHLIST_WEIGHT);
+        }
+        
+        Map<Long, Double> neighbourScores = topNeighbours(neighbours, taste.seen);
+        Map<Long, MovieTraits> candidates = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long movieId : neighbourScores.keySet()) {
+            MovieTraits traits = pool.traitsById().get(movieId);
+            if (traits != null) {
+                candidates.put(movieId, traits);
+            } else {
+                missing.add(movieId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            movieRepository.findTraitsByIdIn(missing).forEach(traits -> candidates.put(traits.getId(), traits));
+        }
+        pool.traitsById().forEach((movieId, traits) -> {
+            if (!taste.seen.contains(movieId)) {
+                candidates.putIfAbsent(movieId, traits);
+            }
+        });
+        
+        Map<Long, Double> scores = new HashMap<>(candidates.size() * 2);
+        candidates.forEach((movieId, traits) -> scores.put(movieId,
+                NEIGHBOUR_WEIGHT * neighbourScores.getOrDefault(movieId, 0.0)
+                        + GENRE_WEIGHT * taste.affinity(taste.genres, traits.getGenre())
+                        + DIRECTOR_WEIGHT * taste.affinity(taste.directors, traits.getDirector())
+                        + POPULARITY_WEIGHT * popularity(traits, pool.maxReviewCount())));
+        return rank(scores);
+    }
+    
+    private void addNeighbours(SimilarityAccumulator neighbours, Long movieId, float signal) {
+        // Disliked movies steer through the genre and director affinities only; their
+        // neighbours are not what the user dislikes, just what fans of it liked
+        if (signal <= 0f) {
+            return;
+        }
+        movieSimilarityIndex.forEachNeighbour(movieId, (neighbourId, score) -> neighbours.add(neighbourId, signal * score));
+    }
+    
+    // Best unseen neighbour candidates, scaled so the strongest scores 1
+    private static Map<Long, Double> topNeighbours(SimilarityAccumulator neighbours, Set<Long> seen) {
+        List<Integer> indexes = new ArrayList<>(neighbours.size());
+        for (int i = 0; i < neighbours.size(); i++) {
+            if (!seen.contains(neighbours.keyAt(i))) {
+                indexes.add(i);
+            }
+        }
+        indexes.sort(Comparator.comparingDouble(i -> -neighbours.dotAt(i)));
+        
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        int size = Math.min(indexes.size(), MAX_NEIGHBOUR_CANDIDATES);
+        double best = size > 0 ? neighbours.dotAt(indexes.get(0)) : 0.0;
+        for (int i = 0; i < size; i++) {
+            scores.put(neighbours.keyAt(indexes.get(i)), neighbours.dotAt(indexes.get(i)) / best);
+        }
+        return scores;
+    }
+    
+    // Between 0 and 1: half from the review count relative to the most reviewed movie, half from the rating
+    private static double popularity(MovieTraits traits, long maxReviewCount) {
+        long reviewCount = traits.getReviewCount() != null ? traits.getReviewCount() : 0L;
+        if (reviewCount == 0 || maxReviewCount == 0) {
+            return 0.0;
+        }
+        double countPart = Math.log1p(reviewCount) / Math.log1p(maxReviewCount);
+        double ratingPart = traits.getAverageRating() != null ? traits.getAverageRating() / 10.0 : 0.0;
+        return 0.5 * countPart + 0.5 * ratingPart;
+    }
+    
+    // Ids ordered by score, best first, ties broken by id; at most FEED_SIZE of them
+    private static long[] rank(Map<Long, Double> scores) {
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(FEED_SIZE)
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+    }
+    
+    private PopularPool popularPool() {
+        PopularPool pool = popular;
+        if (pool == null) {
+            pool = loadPopularPool();
+            popular = pool;
+        }
+        return pool;
+    }
+    
+    private PopularPool loadPopularPool() {
+        List<MovieTraits> mostReviewed = movieRepository.findMostReviewedTraits(PageRequest.of(0, POPULAR_POOL_SIZE));
+        long maxReviewCount = mostReviewed.isEmpty() || mostReviewed.get(0).getReviewCount() == null
+                ? 0L : mostReviewed.get(0).getReviewCount();
+        
+        Map<Long, MovieTraits> traitsById = new LinkedHashMap<>();
+        Map<Long, Double> scores = new HashMap<>();
+        for (MovieTraits traits : mostReviewed) {
+            traitsById.put(traits.getId(), traits);
+            scores.put(traits.getId(), popularity(traits, maxReviewCount));
+        }
+        return new PopularPool(traitsById, maxReviewCount, rank(scores));
+    }
+    
+    private Cache feeds() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.FEEDS_CACHE));
+    }
+    
+    private record PopularPool(Map<Long, MovieTraits> traitsById, long maxReviewCount, long[] ranking) {
+    }
+    
+    /**
+     * What one user has seen, and their mean signal per genre and director.
+     */
+    private static final class Taste {
+        
+        final Set<Long> seen = new HashSet<>();
+        final Map<String, double[]> genres = new HashMap<>();
+        final Map<String, double[]> directors = new HashMap<>();
+        
+        void add(Long movieId, String genre, String director, float signal) {
+            seen.add(movieId);
+            accumulate(genres, genre, signal);
+            accumulate(directors, director, signal);
+        }
+        
+        // Sum of signals over (count + shrinkage): the mean, pulled towards 0 while the count is low
+        double affinity(Map<String, double[]> sums, String name) {
+            double[] sum = name != null ? sums.get(normalize(name)) : null;
+            return sum != null ? sum[0] / (sum[1] + AFFINITY_SHRINKAGE) : 0.0;
+        }
+        
+        private static void accumulate(Map<String, double[]> sums, String name, float signal) {
+            if (name == null || name.isBlank()) {
+                return;
+            }
+            double[] sum = sums.computeIfAbsent(normalize(name), key -> new double[2]);
+            sum[0] += signal;
+            sum[1]++;
+        }
+        
+        private static String normalize(String name) {
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -1,20 +1,29 @@
 package com.example.filmregister.service;
 
+import com.example.filmregister.config.CacheConfig;
+import com.example.filmregister.dto.request.ReviewPatchRequest;
 import com.example.filmregister.dto.request.ReviewRequest;
 import com.example.filmregister.dto.response.ReviewResponse;
 import com.example.filmregister.entity.Movie;
 import com.example.filmregister.entity.Review;
-import com.example.filmregister.entity.User;
+import com.example.filmregister.event.DomainEvent.ReviewCreated;
+import com.example.filmregister.event.DomainEvent.ReviewDeleted;
+import com.example.filmregister.event.DomainEvent.ReviewUpdated;
 import com.example.filmregister.exception.BadRequestException;
+import com.example.filmregister.exception.ConflictException;
 import com.example.filmregister.exception.ResourceNotFoundException;
 import com.example.filmregister.exception.ForbiddenException;
 import com.example.filmregister.repository.MovieRepository;
 import com.example.filmregister.repository.ReviewRepository;
 import com.example.filmregister.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,74 +34,135 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final MovieRepository movieRepository;
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final DomainEventBus domainEventBus;
     
     @Transactional
-    public ReviewResponse addReview(Long movieId, ReviewRequest request, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
+    public ReviewResponse addReview(Long movieId, ReviewRequest request, Long userId) {
         Movie movie = movieRepository.findById(movieId)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + movieId));
         
-        if (reviewRepository.existsByUserIdAndMovieId(user.getId(), movieId)) {
-            throw new BadRequestException("You have already reviewed this movie");
-        }
-        
         Review review = new Review();
-        review.setUser(user);
+        review.setUser(userRepository.getReferenceById(userId));
         review.setMovie(movie);
         review.setRating(request.getRating());
         review.setComment(request.getComment());
         
-        review = reviewRepository.save(review);
+        // The unique (user_id, movie_id) constraint rejects a second review, no pre-check query needed
+        try {
+            review = reviewRepository.saveAndFlush(review);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueViolations.isViolationOf(e, Review.USER_MOVIE_CONSTRAINT)) {
+                throw new BadRequestException("You have already reviewed this movie");
+            }
+            throw e;
+        }
+        movieRepository.applyRatingDelta(movieId, 1, request.getRating());
+        evictCachedMovie(movieId);
+        domainEventBus.publish(new ReviewCreated(review.getId(), movieId, userId, review.getRating(),
+                review.getCreatedAt()));
         return mapToResponse(review);
     }
     
     @Transactional
-    public ReviewResponse updateReview(Long reviewId, ReviewRequest request, String username) {
-        Review review = reviewRepository.findById(reviewId)
+    public ReviewResponse updateReview(Long reviewId, ReviewRequest request, Long userId) {
+        Review review = findOwnReviewForUpdate(reviewId, userId, request.getVersion());
+        review.setComment(request.getComment());
+        return saveUpdated(review, request.getRating());
+    }
+    
+    @Transactional
+    public ReviewResponse patchReview(Long reviewId, ReviewPatchRequest request, Long userId) {
+        Review review = findOwnReviewForUpdate(reviewId, userId, request.getVersion());
+        if (request.getComment() != null) {
+            review.setComment(request.getComment());
+        }
+        return saveUpdated(review, request.getRating() != null ? request.getRating() : review.getRating());
+    }
+    
+    private Review findOwnReviewForUpdate(Long reviewId, Long userId, Long expectedVersion) {
+        if (expectedVersion == null) {
+            throw new BadRequestException("Version is required, send the version of the review last read");
+        }
+        Review review = reviewRepository.findWithUserAndMovieById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
         
-        if (!review.getUser().getUsername().equals(username)) {
+        if (!review.getUser().getId().equals(userId)) {
             throw new ForbiddenException("You can only edit your own reviews");
         }
+        if (!expectedVersion.equals(review.getVersion())) {
+            throw new ConflictException("Review " + reviewId + " was modified elsewhere, reload it and retry");
+        }
+        return review;
+    }
+    
+    private ReviewResponse saveUpdated(Review review, int rating) {
+        int previousRating = review.getRating();
+        int ratingDelta = rating - previousRating;
+        review.setRating(rating);
         
-        review.setRating(request.getRating());
-        review.setComment(request.getComment());
-        
-        review = reviewRepository.save(review);
+        // Flushed here so the response carries the incremented version
+        review = reviewRepository.saveAndFlush(review);
+        if (ratingDelta != 0) {
+            movieRepository.applyRatingDelta(review.getMovie().getId(), 0, ratingDelta);
+        }
+        domainEventBus.publish(new ReviewUpdated(review.getId(), review.getMovie().getId(), review.getUser().getId(),
+                previousRating, rating, LocalDateTime.now()));
+        evictCachedMovie(review.getMovie().getId());
         return mapToResponse(review);
     }
     
     @Transactional
-    public void deleteReview(Long reviewId, String username) {
+    public void deleteReview(Long reviewId, Long userId) {
+        // The author and movie are only compared and referenced by id, so their proxies are never loaded
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
         
-        if (!review.getUser().getUsername().equals(username)) {
+        if (!review.getUser().getId().equals(userId)) {
             throw new ForbiddenException("You can only delete your own reviews");
         }
         
         reviewRepository.delete(review);
+        movieRepository.applyRatingDelta(review.getMovie().getId(), -1, -review.getRating());
+        evictCachedMovie(review.getMovie().getId());
+        domainEventBus.publish(new ReviewDeleted(reviewId, review.getMovie().getId(), userId, review.getRating(),
+                review.getCreatedAt(), LocalDateTime.now()));
     }
     
     @Transactional(readOnly = true)
-    public List<ReviewResponse> getMovieReviews(Long movieId) {
-        return reviewRepository.findByMovieId(movieId).stream()
+    public List<ReviewResponse> getMovieReviews(Long movieId, Integer page, Integer size) {
+        return reviewRepository.findWithUserAndMovieByMovieId(movieId, ListPages.of(page, size)).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Opaque value that changes whenever the movie's review listing would, or null
+     * when the movie does not exist.
+     */
     @Transactional(readOnly = true)
-    public List<ReviewResponse> getUserReviews(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        return reviewRepository.findByUserId(user.getId()).stream()
+    public String getMovieReviewsVersion(Long movieId) {
+        return reviewRepository.findReviewListVersion(movieId)
+                .map(version -> version.getMovieVersion() + "/" + version.getReviewCount()
+                        + "/" + version.getLastReviewUpdatedAt())
+                .orElse(null);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ReviewResponse> getUserReviews(Long userId, Integer page, Integer size) {
+        return reviewRepository.findWithUserAndMovieByUserId(userId, ListPages.of(page, size)).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
     
+    // The cached movie response carries the rating aggregates that reviews change
+    private void evictCachedMovie(Long movieId) {
+        Cache cache = cacheManager.getCache(CacheConfig.MOVIES_CACHE);
+        if (cache != null) {
+            cache.evict(movieId);
+        }
+    }
+    
     private ReviewResponse mapToResponse(Review review) {
         return new ReviewResponse(
                 review.getId(),
@@ -104,7 +174,8 @@ public class ReviewService {
                 review.getRating(),
                 review.getComment(),
                 review.getCreatedAt(),
-                review.getUpdatedAt()
+                review.getUpdatedAt(),
+                review.getVersion()
         );
     }
 }
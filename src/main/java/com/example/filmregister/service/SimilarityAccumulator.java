@@ -0,0 +1,104 @@
+package com.example.filmregister.service;
+
+import java.util.Arrays;
+
+/**
+ * Scratch space for the neighbour search of one movie: per candidate movie id, the
+ * running dot product and the number of users it shares with the movie. An
+ * open-addressing table of primitives, reused across movies; clearing only resets
+ * the slots that were used.
+ */
+class SimilarityAccumulator {
+    
+    private static final long FREE = Long.MIN_VALUE;
+    
+    private long[] keys;
+    private float[] dots;
+    private int[] counts;
+    // Slots in insertion order, for iteration and cheap clearing
+    private int[] used;
+    private int size;
+    
+    SimilarityAccumulator(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1);
+    }
+    
+    void add(long key, float value) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int slot = slotOf(key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            used[size++] = slot;
+        }
+        dots[slot] += value;
+        counts[slot]++;
+    }
+    
+    boolean contains(long key) {
+        return keys[slotOf(key)] != FREE;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    long keyAt(int index) {
+        return keys[used[index]];
+    }
+    
+    float dotAt(int index) {
+        return dots[used[index]];
+    }
+    
+    int countAt(int index) {
+        return counts[used[index]];
+    }
+    
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            int slot = used[i];
+            keys[slot] = FREE;
+            dots[slot] = 0f;
+            counts[slot] = 0;
+        }
+        size = 0;
+    }
+    
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    private void grow() {
+        long[] oldKeys = keys;
+        float[] oldDots = dots;
+        int[] oldCounts = counts;
+        int[] oldUsed = used;
+        int oldSize = size;
+        
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldSize; i++) {
+            int oldSlot = oldUsed[i];
+            int slot = slotOf(oldKeys[oldSlot]);
+            keys[slot] = oldKeys[oldSlot];
+            dots[slot] = oldDots[oldSlot];
+            counts[slot] = oldCounts[oldSlot];
+            used[size++] = slot;
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        dots = new float[capacity];
+        counts = new int[capacity];
+        used = new int[capacity];
+        size = 0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.filmregister.service;
+
+import java.util.Arrays;
+
+/**
+ * Sparse vector with long keys, kept as parallel primitive arrays sorted by key.
+ * Appending keys in ascending order is constant time; other inserts shift the tail.
+ */
+class SparseVector {
+    
+    private long[] keys = new long[4];
+    private float[] values = new float[4];
+    private int size;
+    // Cached Euclidean norm, negative when stale
+    private float norm = -1f;
+    
+    void add(long key, float delta) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] += delta;
+            norm = -1f;
+        } else {
+            insert(-index - 1, key, delta);
+        }
+    }
+    
+    void put(long key, float value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] = value;
+            norm = -1f;
+        } else {
+            insert(-index - 1, key, value);
+        }
+    }
+    
+    void remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        norm = -1f;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    long keyAt(int index) {
+        return keys[index];
+    }
+    
+    float valueAt(int index) {
+        return values[index];
+    }
+    
+    float norm() {
+        if (norm < 0f) {
+            double sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += (double) values[i] * values[i];
+            }
+            norm = (float) Math.sqrt(sum);
+        }
+        return norm;
+    }
+    
+    private int indexOf(long key) {
+        // Fast path for the ascending appends of a bulk load
+        if (size > 0 && key > keys[size - 1]) {
+            return -size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+    
+    private void insert(int at, long key, float value) {
+        if (size == keys.length) {
+            int capacity = size + (size >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(values, at, values, at + 1, size - at);
+        keys[at] = key;
+        values[at] = value;
+        size++;
+        norm = -1f;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.filmregister.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Tells a write rejected by a particular unique constraint apart from other integrity
+ * failures, such as a foreign key to a user or movie that no longer exists.
+ */
+final class UniqueViolations {
+    
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
+    
+    private UniqueViolations() {
+    }
+    
+    static boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+        Throwable cause = e.getCause();
+        if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+            // Databases decorate the name differently, e.g. H2 qualifies it with the schema and index
+            return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraintName);
+        }
+        // No name reported: only the SQL state is left to go by
+        return NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException sqlException
+                && UNIQUE_VIOLATION_STATE.equals(sqlException.getSQLState());
+    }
+}
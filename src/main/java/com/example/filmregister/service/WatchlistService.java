@@ -1,19 +1,23 @@
 package com.example.filmregister.service;
 
 import com.example.filmregister.dto.response.MovieResponse;
+import com.example.filmregister.dto.response.WatchlistCardResponse;
 import com.example.filmregister.dto.response.WatchlistResponse;
 import com.example.filmregister.entity.Movie;
-import com.example.filmregister.entity.User;
 import com.example.filmregister.entity.Watchlist;
+import com.example.filmregister.event.DomainEvent.WatchlistAdded;
+import com.example.filmregister.event.DomainEvent.WatchlistRemoved;
 import com.example.filmregister.exception.BadRequestException;
 import com.example.filmregister.exception.ResourceNotFoundException;
 import com.example.filmregister.repository.MovieRepository;
 import com.example.filmregister.repository.UserRepository;
 import com.example.filmregister.repository.WatchlistRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,49 +28,52 @@ public class WatchlistService {
     private final WatchlistRepository watchlistRepository;
     private final MovieRepository movieRepository;
     private final UserRepository userRepository;
+    private final DomainEventBus domainEventBus;
     
     @Transactional
-    public WatchlistResponse addToWatchlist(Long movieId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
+    public WatchlistResponse addToWatchlist(Long movieId, Long userId) {
         Movie movie = movieRepository.findById(movieId)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + movieId));
         
-        if (watchlistRepository.existsByUserIdAndMovieId(user.getId(), movieId)) {
-            throw new BadRequestException("Movie already in your watchlist");
-        }
-        
         Watchlist watchlist = new Watchlist();
-        watchlist.setUser(user);
+        watchlist.setUser(userRepository.getReferenceById(userId));
         watchlist.setMovie(movie);
         
-        watchlist = watchlistRepository.save(watchlist);
+        // The unique (user_id, movie_id) constraint rejects duplicates, no pre-check query needed
+        try {
+            watchlist = watchlistRepository.saveAndFlush(watchlist);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueViolations.isViolationOf(e, Watchlist.USER_MOVIE_CONSTRAINT)) {
+                throw new BadRequestException("Movie already in your watchlist");
+            }
+            throw e;
+        }
+        domainEventBus.publish(new WatchlistAdded(movieId, userId, watchlist.getAddedAt()));
         return mapToResponse(watchlist);
     }
     
     @Transactional
-    public void removeFromWatchlist(Long movieId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        if (!watchlistRepository.existsByUserIdAndMovieId(user.getId(), movieId)) {
+    public void removeFromWatchlist(Long movieId, Long userId) {
+        if (watchlistRepository.deleteByUserIdAndMovieId(userId, movieId) == 0) {
             throw new ResourceNotFoundException("Movie not found in your watchlist");
         }
-        
-        watchlistRepository.deleteByUserIdAndMovieId(user.getId(), movieId);
+        domainEventBus.publish(new WatchlistRemoved(movieId, userId, LocalDateTime.now()));
     }
     
     @Transactional(readOnly = true)
-    public List<WatchlistResponse> getWatchlist(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        return watchlistRepository.findByUserId(user.getId()).stream()
+    public List<WatchlistResponse> getWatchlist(Long userId, Integer page, Integer size) {
+        return watchlistRepository.findWithMovieByUserId(userId, ListPages.of(page, size)).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public List<WatchlistCardResponse> getWatchlistCards(Long userId, Integer page, Integer size) {
+        return watchlistRepository.findCardsByUserId(userId, ListPages.of(page, size)).stream()
+                .map(card -> new WatchlistCardResponse(card.getEntryId(), MovieService.mapToCard(card), card.getAddedAt()))
+                .collect(Collectors.toList());
+    }
+    
     private WatchlistResponse mapToResponse(Watchlist watchlist) {
         Movie movie = watchlist.getMovie();
         MovieResponse movieResponse = new MovieResponse();
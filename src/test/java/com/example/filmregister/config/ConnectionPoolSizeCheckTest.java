@@ -0,0 +1,32 @@
+package com.example.filmregister.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolSizeCheckTest {
+
+    @Test
+    void acceptsPoolThatFitsRequestThreads() {
+        assertThat(ConnectionPoolSizeCheck.findMismatches(20, 10000, false, 200)).isEmpty();
+    }
+
+    @Test
+    void warnsWhenPoolExceedsRequestThreads() {
+        assertThat(ConnectionPoolSizeCheck.findMismatches(50, 10000, false, 40))
+                .singleElement().asString().contains("10 connections can never be used");
+    }
+
+    @Test
+    void warnsWhenRequestThreadsFarOutnumberConnections() {
+        assertThat(ConnectionPoolSizeCheck.findMismatches(5, 10000, false, 200))
+                .singleElement().asString().contains("200 request threads share 5");
+    }
+
+    @Test
+    void warnsAboutLongConnectionTimeoutWithVirtualThreads() {
+        assertThat(ConnectionPoolSizeCheck.findMismatches(20, 3000, true, 200)).isEmpty();
+        assertThat(ConnectionPoolSizeCheck.findMismatches(20, 30000, true, 200))
+                .singleElement().asString().contains("connection-timeout");
+    }
+}
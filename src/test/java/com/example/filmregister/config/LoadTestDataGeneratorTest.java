@@ -0,0 +1,85 @@
+package com.example.filmregister.config;
+
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.repository.MovieRepository;
+import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.UserRepository;
+import com.example.filmregister.repository.WatchlistRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtestdb",
+        "loadtest.users=200",
+        "loadtest.movies=2000",
+        "loadtest.reviews=5000",
+        "loadtest.watchlist-entries=1000"
+})
+@ActiveProfiles({"test", "loadtest"})
+class LoadTestDataGeneratorTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldGenerateConfiguredVolumes() {
+        assertThat(userRepository.count()).isEqualTo(200);
+        assertThat(movieRepository.count()).isEqualTo(2000);
+        assertThat(reviewRepository.count()).isEqualTo(5000);
+        assertThat(watchlistRepository.count()).isEqualTo(1000);
+    }
+
+    @Test
+    void shouldWriteRatingAggregatesConsistentWithReviews() {
+        Integer mismatches = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM movies m WHERE m.review_count <> " +
+                "(SELECT COUNT(*) FROM reviews r WHERE r.movie_id = m.id) OR m.rating_sum <> " +
+                "(SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.movie_id = m.id)", Integer.class);
+
+        assertThat(mismatches).isZero();
+    }
+
+    @Test
+    void shouldSkewReviewsTowardsPopularTitlesAndHeavyUsers() {
+        long reviews = reviewRepository.count();
+        Long topTenMovies = jdbcTemplate.queryForObject(
+                "SELECT SUM(review_count) FROM (SELECT review_count FROM movies ORDER BY review_count DESC LIMIT 10) t",
+                Long.class);
+        Long topTenUsers = jdbcTemplate.queryForObject(
+                "SELECT SUM(c) FROM (SELECT COUNT(*) c FROM reviews GROUP BY user_id ORDER BY c DESC LIMIT 10) t",
+                Long.class);
+
+        // Uniform data would give the top 0.5% of movies and 5% of users about that share of reviews
+        assertThat(topTenMovies).isGreaterThan(reviews / 10);
+        assertThat(topTenUsers).isGreaterThan(reviews / 5);
+    }
+
+    @Test
+    @Transactional
+    void shouldContinueIdentitiesAfterGeneratedRows() {
+        Movie movie = new Movie();
+        movie.setTitle("Inserted After Generation");
+
+        Movie saved = movieRepository.save(movie);
+
+        assertThat(saved.getId()).isGreaterThan(2000L);
+    }
+}
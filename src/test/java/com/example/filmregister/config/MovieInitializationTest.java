@@ -1,5 +1,6 @@
 package com.example.filmregister.config;
 
+import com.example.filmregister.entity.Movie;
 import com.example.filmregister.repository.MovieRepository;
 import com.example.filmregister.repository.ReviewRepository;
 import com.example.filmregister.repository.UserRepository;
@@ -74,6 +75,15 @@ class MovieInitializationTest {
         assertThat(reviewCount).isEqualTo(8);
     }
 
+    @Test
+    void shouldBuildRatingAggregatesForSampleReviews() {
+        // Game of Thrones has a single sample review rated 8
+        Movie gameOfThrones = movieRepository.findByTitle("Game of Thrones").orElseThrow();
+        assertThat(gameOfThrones.getReviewCount()).isEqualTo(1L);
+        assertThat(gameOfThrones.getRatingSum()).isEqualTo(8L);
+        assertThat(gameOfThrones.getAverageRating()).isEqualTo(8.0);
+    }
+
     @Test
     void shouldLoadSampleWatchlists() {
         // Verify that watchlist items are loaded (3 + 3 + 2 + 2 = 10)
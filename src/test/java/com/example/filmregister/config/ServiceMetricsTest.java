@@ -0,0 +1,43 @@
+package com.example.filmregister.config;
+
+import com.example.filmregister.exception.ResourceNotFoundException;
+import com.example.filmregister.service.MovieService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ServiceMetricsTest {
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void timesServiceCallsByOutcome() {
+        movieService.suggestMovies("matrix", 5);
+        assertThatThrownBy(() -> movieService.getMovie(-1L)).isInstanceOf(ResourceNotFoundException.class);
+
+        Timer success = meterRegistry.find(ServiceMetricsInterceptor.METRIC_NAME)
+                .tags("class", "MovieService", "method", "suggestMovies", "outcome", "success", "endpoint", "none")
+                .timer();
+        Timer error = meterRegistry.find(ServiceMetricsInterceptor.METRIC_NAME)
+                .tags("class", "MovieService", "method", "getMovie", "outcome", "error",
+                        "exception", "ResourceNotFoundException")
+                .timer();
+
+        assertThat(success).isNotNull();
+        assertThat(success.count()).isGreaterThanOrEqualTo(1);
+        assertThat(error).isNotNull();
+        assertThat(error.count()).isGreaterThanOrEqualTo(1);
+    }
+}
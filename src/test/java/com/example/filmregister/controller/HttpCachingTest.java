@@ -0,0 +1,96 @@
+package com.example.filmregister.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpCachingTest {
+    
+    private HttpCaching httpCaching;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private AtomicInteger bodyLoads;
+    
+    @BeforeEach
+    void setUp() {
+        httpCaching = new HttpCaching(Duration.ZERO, Duration.ofSeconds(60));
+        request = new MockHttpServletRequest("GET", "/api/movies/1");
+        response = new MockHttpServletResponse();
+        bodyLoads = new AtomicInteger();
+    }
+    
+    @Test
+    void shouldReturnBodyWithEtagAndCacheControl() {
+        String etag = HttpCaching.etag(1L, "2024-01-01T10:00", 3L);
+        
+        ResponseEntity<String> result = httpCaching.conditional(new ServletWebRequest(request, response), etag, this::loadBody);
+        
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isEqualTo("body");
+        assertThat(result.getHeaders().getCacheControl()).isEqualTo("max-age=0, public, s-maxage=60");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(bodyLoads).hasValue(1);
+    }
+    
+    @Test
+    void shouldAnswerMatchingRequestWithoutLoadingBody() {
+        String etag = HttpCaching.etag(1L, "2024-01-01T10:00", 3L);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        
+        ResponseEntity<String> result = httpCaching.conditional(new ServletWebRequest(request, response), etag, this::loadBody);
+        
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(result.getBody()).isNull();
+        assertThat(bodyLoads).hasValue(0);
+    }
+    
+    @Test
+    void shouldReturnBodyWhenEtagIsStale() {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, HttpCaching.etag(1L, "2024-01-01T10:00", 3L));
+        
+        ResponseEntity<String> result = httpCaching.conditional(new ServletWebRequest(request, response),
+                HttpCaching.etag(1L, "2024-01-01T10:00", 4L), this::loadBody);
+        
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bodyLoads).hasValue(1);
+    }
+    
+    @Test
+    void shouldDeriveWeakEtagFromParts() {
+        assertThat(HttpCaching.etag("ab", "c")).isEqualTo(HttpCaching.etag("ab", "c"))
+                .isNotEqualTo(HttpCaching.etag("a", "bc"))
+                .startsWith("W/\"");
+    }
+    
+    @Test
+    void shouldAcceptGzipOnlyWithNonZeroQuality() {
+        assertThat(HttpCaching.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(HttpCaching.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(HttpCaching.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(HttpCaching.acceptsGzip("gzip; q=0.000, *")).isFalse();
+        assertThat(HttpCaching.acceptsGzip("identity")).isFalse();
+        assertThat(HttpCaching.acceptsGzip(null)).isFalse();
+    }
+    
+    @Test
+    void shouldFallBackToWildcardWhenGzipIsNotListed() {
+        assertThat(HttpCaching.acceptsGzip("br, *;q=0.1")).isTrue();
+        assertThat(HttpCaching.acceptsGzip("*;q=0")).isFalse();
+        assertThat(HttpCaching.acceptsGzip("gzip;q=oops")).isFalse();
+    }
+    
+    private String loadBody() {
+        bodyLoads.incrementAndGet();
+        return "body";
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.filmregister.repository;
 
 import com.example.filmregister.entity.Movie;
+import com.example.filmregister.entity.MovieType;
+import com.example.filmregister.repository.MovieRepository.MovieCard;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +25,9 @@ class MovieRepositoryTest {
     @Autowired
     private MovieRepository movieRepository;
     
+    @Autowired
+    private EntityManager entityManager;
+    
     private Movie movie1;
     private Movie movie2;
     
@@ -121,4 +128,128 @@ class MovieRepositoryTest {
         assertThat(results).hasSize(1);
         assertThat(results.get(0).getTitle()).isEqualTo("The Matrix");
     }
+    
+    @Test
+    void shouldApplyRatingDeltas() {
+        movieRepository.applyRatingDelta(movie1.getId(), 1, 8);
+        movieRepository.applyRatingDelta(movie1.getId(), 1, 5);
+        movieRepository.applyRatingDelta(movie1.getId(), 0, 2);
+        entityManager.clear();
+        
+        Movie found = movieRepository.findById(movie1.getId()).orElseThrow();
+        assertThat(found.getReviewCount()).isEqualTo(2L);
+        assertThat(found.getRatingSum()).isEqualTo(15L);
+        assertThat(found.getAverageRating()).isEqualTo(7.5);
+    }
+    
+    @Test
+    void shouldResetAverageWhenLastReviewRemoved() {
+        movieRepository.applyRatingDelta(movie1.getId(), 1, 9);
+        movieRepository.applyRatingDelta(movie1.getId(), -1, -9);
+        entityManager.clear();
+        
+        Movie found = movieRepository.findById(movie1.getId()).orElseThrow();
+        assertThat(found.getReviewCount()).isZero();
+        assertThat(found.getRatingSum()).isZero();
+        assertThat(found.getAverageRating()).isZero();
+    }
+    
+    @Test
+    void shouldPageByIdAfterCursor() {
+        List<MovieCard> first = movieRepository.findCardPageById(0L, PageRequest.of(0, 1));
+        List<MovieCard> second = movieRepository.findCardPageById(first.get(0).getId(), PageRequest.of(0, 1));
+        
+        assertThat(first).extracting(MovieCard::getTitle).containsExactly("The Matrix");
+        assertThat(second).extracting(MovieCard::getTitle).containsExactly("Inception");
+    }
+    
+    @Test
+    void shouldPageAllTypesUnlessFilteredByType() {
+        Movie series = new Movie();
+        series.setTitle("Dark");
+        series.setType(MovieType.TV_SERIES);
+        movieRepository.save(series);
+        
+        List<MovieCard> all = movieRepository.findCardPageById(0L, PageRequest.of(0, 10));
+        List<MovieCard> movies = movieRepository.findCardPageById(MovieType.MOVIE, 0L, PageRequest.of(0, 10));
+        List<MovieCard> seriesOnly = movieRepository.findCardPageByReviewCount(
+                MovieType.TV_SERIES, Long.MAX_VALUE, 0L, PageRequest.of(0, 10));
+        
+        assertThat(all).extracting(MovieCard::getTitle).containsExactly("The Matrix", "Inception", "Dark");
+        assertThat(movies).extracting(MovieCard::getTitle).containsExactly("The Matrix", "Inception");
+        assertThat(seriesOnly).extracting(MovieCard::getTitle).containsExactly("Dark");
+    }
+    
+    @Test
+    void shouldPageByImdbRatingWithUnratedTitlesSeparately() {
+        movie1.setImdbRating(8.7);
+        movieRepository.save(movie1);
+        
+        Movie rated = new Movie();
+        rated.setTitle("Interstellar");
+        rated.setImdbRating(8.7);
+        movieRepository.save(rated);
+        
+        List<MovieCard> ratedPage = movieRepository.findCardPageByImdbRating(
+                Double.MAX_VALUE, 0L, PageRequest.of(0, 10));
+        List<MovieCard> afterFirst = movieRepository.findCardPageByImdbRating(
+                8.7, movie1.getId(), PageRequest.of(0, 10));
+        List<MovieCard> unrated = movieRepository.findCardPageWithoutImdbRating(
+                0L, PageRequest.of(0, 10));
+        
+        assertThat(ratedPage).extracting(MovieCard::getTitle).containsExactly("The Matrix", "Interstellar");
+        assertThat(afterFirst).extracting(MovieCard::getTitle).containsExactly("Interstellar");
+        assertThat(unrated).extracting(MovieCard::getTitle).containsExactly("Inception");
+    }
+    
+    @Test
+    void shouldPageByAverageRatingDescending() {
+        movieRepository.applyRatingDelta(movie2.getId(), 1, 9);
+        movieRepository.applyRatingDelta(movie1.getId(), 1, 6);
+        entityManager.clear();
+        
+        List<MovieCard> page = movieRepository.findCardPageByAverageRating(
+                MovieType.MOVIE, Double.MAX_VALUE, 0L, PageRequest.of(0, 10));
+        List<MovieCard> afterTop = movieRepository.findCardPageByAverageRating(
+                MovieType.MOVIE, 9.0, movie2.getId(), PageRequest.of(0, 10));
+        
+        assertThat(page).extracting(MovieCard::getTitle).containsExactly("Inception", "The Matrix");
+        assertThat(page.get(0).getReleaseYear()).isEqualTo(2010);
+        assertThat(page.get(0).getAverageRating()).isEqualTo(9.0);
+        assertThat(page.get(0).getReviewCount()).isEqualTo(1L);
+        assertThat(afterTop).extracting(MovieCard::getTitle).containsExactly("The Matrix");
+    }
+    
+    @Test
+    void shouldFindCardsById() {
+        List<MovieCard> cards = movieRepository.findCardsByIdIn(List.of(movie1.getId()));
+        
+        assertThat(cards).extracting(MovieCard::getTitle).containsExactly("The Matrix");
+        assertThat(cards.get(0).getType()).isEqualTo(MovieType.MOVIE);
+    }
+    
+    @Test
+    void shouldSortByImdbRatingInDatabaseWithUnratedLast() {
+        movieRepository.deleteAll();
+        saveMovieWithImdbRating("Movie 1", 7.5);
+        saveMovieWithImdbRating("Movie 2", null);
+        saveMovieWithImdbRating("Movie 3", 9.0);
+        saveMovieWithImdbRating("Movie 4", 8.2);
+        
+        List<MovieCard> rated = movieRepository.findCardPageByImdbRating(
+                MovieType.MOVIE, Double.MAX_VALUE, 0L, PageRequest.of(0, 10));
+        List<MovieCard> unrated = movieRepository.findCardPageWithoutImdbRating(
+                MovieType.MOVIE, 0L, PageRequest.of(0, 10));
+        
+        assertThat(rated).extracting(MovieCard::getImdbRating).containsExactly(9.0, 8.2, 7.5);
+        assertThat(unrated).extracting(MovieCard::getTitle).containsExactly("Movie 2");
+    }
+    
+    private void saveMovieWithImdbRating(String title, Double imdbRating) {
+        Movie movie = new Movie();
+        movie.setTitle(title);
+        movie.setType(MovieType.MOVIE);
+        movie.setImdbRating(imdbRating);
+        movieRepository.save(movie);
+    }
 }
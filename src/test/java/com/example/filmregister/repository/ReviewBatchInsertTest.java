@@ -0,0 +1,172 @@
+package com.example.filmregister.repository;
+
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.entity.Review;
+import com.example.filmregister.entity.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saves reviews through {@link ReviewRepository#saveAll} and checks that the inserts
+ * go out as full JDBC batches rather than one statement per row. Batches are counted
+ * at the driver, where each executeBatch call is one round trip.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:batchinsertdb")
+@ActiveProfiles("test")
+@Transactional
+class ReviewBatchInsertTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReviewBatchInsertTest.class);
+    
+    private static final int USERS = 20;
+    private static final int MOVIES = 100;
+    // A multiple of the JDBC batch size, so every flush sends only full batches
+    private static final int CHUNK_SIZE = 500;
+    private static final int JDBC_BATCH_SIZE = 50;
+    
+    private static final AtomicInteger EXECUTED_BATCHES = new AtomicInteger();
+    
+    @Autowired
+    private ReviewRepository reviewRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Test
+    void shouldBatchReviewInserts() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("batch" + i);
+            user.setEmail("batch" + i + "@example.com");
+            user.setPassword("password");
+            user.setRole(User.Role.USER);
+            users.add(user);
+        }
+        users = userRepository.saveAll(users);
+        
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < MOVIES; i++) {
+            Movie movie = new Movie();
+            movie.setTitle("Batch Movie " + i);
+            movies.add(movie);
+        }
+        movies = movieRepository.saveAll(movies);
+        entityManager.flush();
+        
+        EXECUTED_BATCHES.set(0);
+        long start = System.nanoTime();
+        
+        List<Review> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (User user : users) {
+            for (Movie movie : movies) {
+                Review review = new Review();
+                // References keep the persistence context small once it has been cleared
+                review.setUser(entityManager.getReference(User.class, user.getId()));
+                review.setMovie(entityManager.getReference(Movie.class, movie.getId()));
+                review.setRating(1 + (int) ((user.getId() + movie.getId()) % 10));
+                chunk.add(review);
+                if (chunk.size() == CHUNK_SIZE) {
+                    saveChunk(chunk);
+                }
+            }
+        }
+        saveChunk(chunk);
+        
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        int rows = USERS * MOVIES;
+        log.info("Inserted {} reviews in {} ms ({} rows/s, {} batches)",
+                rows, elapsedMillis, rows * 1000L / elapsedMillis, EXECUTED_BATCHES.get());
+        
+        assertThat(reviewRepository.count()).isEqualTo(rows);
+        assertThat(EXECUTED_BATCHES.get()).isEqualTo(rows / JDBC_BATCH_SIZE);
+    }
+    
+    private void saveChunk(List<Review> chunk) {
+        reviewRepository.saveAll(chunk);
+        entityManager.flush();
+        entityManager.clear();
+        chunk.clear();
+    }
+    
+    @TestConfiguration
+    static class BatchCountingConfig {
+        
+        // Static: post-processors are created before the beans they process
+        @Bean
+        static BeanPostProcessor batchCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new BatchCountingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+    
+    private static final class BatchCountingDataSource extends DelegatingDataSource {
+        
+        BatchCountingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countBatches(super.getConnection());
+        }
+        
+        private static Connection countBatches(Connection connection) {
+            return proxy(Connection.class, connection, (method, result) ->
+                    method.getReturnType() == PreparedStatement.class
+                            ? proxy(PreparedStatement.class, (PreparedStatement) result, (statementMethod, statementResult) -> {
+                                if (statementMethod.getName().equals("executeBatch")) {
+                                    EXECUTED_BATCHES.incrementAndGet();
+                                }
+                                return statementResult;
+                            })
+                            : result);
+        }
+        
+        private static <T> T proxy(Class<T> type, T target, BiFunction<Method, Object, Object> afterCall) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                try {
+                    return afterCall.apply(method, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+        }
+    }
+}
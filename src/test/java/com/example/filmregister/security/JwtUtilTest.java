@@ -0,0 +1,111 @@
+package com.example.filmregister.security;
+
+import com.example.filmregister.entity.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+    
+    private static final String SECRET = "testSecretKeyForJWTTokenGenerationInTests123456789";
+    
+    private JwtUtil jwtUtil;
+    private String token;
+    
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 60_000L, 100L);
+        
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        user.setEmail("test@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        token = jwtUtil.generateToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+    
+    @Test
+    void shouldReturnUsernameForValidToken() {
+        assertThat(jwtUtil.getUsernameFromValidToken(token)).isEqualTo("testuser");
+        assertThat(jwtUtil.validateToken(token)).isTrue();
+    }
+    
+    @Test
+    void shouldCarryPrincipalInClaims() {
+        UserDetailsImpl principal = jwtUtil.getUserDetailsFromValidToken(token);
+        
+        assertThat(principal.getId()).isEqualTo(1L);
+        assertThat(principal.getUsername()).isEqualTo("testuser");
+        assertThat(principal.getEmail()).isEqualTo("test@example.com");
+        assertThat(principal.getPassword()).isNull();
+        assertThat(principal.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+    }
+    
+    @Test
+    void shouldAcceptTokenWithoutPrincipalClaims() {
+        String legacy = Jwts.builder()
+                .subject("testuser")
+                .expiration(new Date(System.currentTimeMillis() + 60_000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        
+        UserDetailsImpl principal = jwtUtil.getUserDetailsFromValidToken(legacy);
+        
+        assertThat(principal.getUsername()).isEqualTo("testuser");
+        assertThat(principal.getId()).isNull();
+        assertThat(principal.getAuthorities()).isEmpty();
+    }
+    
+    @Test
+    void shouldAnswerRepeatedLookupsFromCache() {
+        assertThat(jwtUtil.getUserDetailsFromValidToken(token))
+                .isSameAs(jwtUtil.getUserDetailsFromValidToken(token));
+    }
+    
+    @Test
+    void shouldRejectTamperedToken() {
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        
+        assertThat(jwtUtil.getUsernameFromValidToken(tampered)).isNull();
+        assertThat(jwtUtil.validateToken(tampered)).isFalse();
+    }
+    
+    @Test
+    void shouldRejectTokenSignedWithAnotherKey() {
+        String foreign = Jwts.builder()
+                .subject("testuser")
+                .expiration(new Date(System.currentTimeMillis() + 60_000L))
+                .signWith(Keys.hmacShaKeyFor("anotherSecretKeyForJWTTokenGeneration1234567890".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        
+        assertThat(jwtUtil.getUsernameFromValidToken(foreign)).isNull();
+    }
+    
+    @Test
+    void shouldRejectExpiredToken() {
+        String expired = Jwts.builder()
+                .subject("testuser")
+                .issuedAt(new Date(System.currentTimeMillis() - 120_000L))
+                .expiration(new Date(System.currentTimeMillis() - 60_000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        
+        assertThat(jwtUtil.getUsernameFromValidToken(expired)).isNull();
+    }
+    
+    @Test
+    void shouldRejectMissingOrMalformedToken() {
+        assertThat(jwtUtil.getUsernameFromValidToken(null)).isNull();
+        assertThat(jwtUtil.getUsernameFromValidToken("")).isNull();
+        assertThat(jwtUtil.getUsernameFromValidToken("not.a.jwt")).isNull();
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.entity.OutboxEvent;
+import com.example.filmregister.event.DomainEvent;
+import com.example.filmregister.event.DomainEvent.WatchlistAdded;
+import com.example.filmregister.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the bus through its outbox paths with two recording listeners: a queue of two
+ * events that overflows, a listener that fails once or keeps failing, unreadable rows and
+ * rows left behind by a stopped instance. Redelivery is triggered by hand, with no delay,
+ * instead of by the scheduled job, and an event gets one redelivery before it is parked.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:eventbusdb",
+        "events.queue-capacity=2",
+        "events.outbox.redeliver-after=0s",
+        "events.outbox.max-attempts=1"
+})
+@ActiveProfiles("test")
+class DomainEventBusTest {
+    
+    @Autowired
+    private DomainEventBus domainEventBus;
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private RecordingListener firstListener;
+    
+    @Autowired
+    private RecordingListener secondListener;
+    
+    private long nextMovieId = 1000;
+    
+    @BeforeEach
+    void setUp() {
+        firstListener.reset();
+        secondListener.reset();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+    }
+    
+    @Test
+    void shouldDeleteOutboxRowOnceEveryListenerTookEvent() throws InterruptedException {
+        DomainEvent event = publish();
+        awaitEvents();
+        
+        assertThat(firstListener.received).containsExactly(event);
+        assertThat(secondListener.received).containsExactly(event);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+    
+    @Test
+    void shouldKeepOverflowingEventsInOutboxUntilRedelivered() throws InterruptedException {
+        double overflowedBefore = meterRegistry.counter("domain.events.overflowed").count();
+        CountDownLatch gate = firstListener.hold();
+        publish();
+        // The worker is now stuck on the first event, so the queue fills up
+        assertThat(firstListener.entered.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+        publish();
+        publish();
+        DomainEvent overflowing = publish();
+        
+        assertThat(meterRegistry.counter("domain.events.overflowed").count()).isEqualTo(overflowedBefore + 1);
+        gate.countDown();
+        awaitEvents();
+        assertThat(firstListener.received).hasSize(3).doesNotContain(overflowing);
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+        
+        assertThat(domainEventBus.redeliverStale()).isEqualTo(1);
+        awaitEvents();
+        assertThat(firstListener.received).hasSize(4).endsWith(overflowing);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+    
+    @Test
+    void shouldRedeliverOnlyToListenerThatFailed() throws InterruptedException {
+        firstListener.failNext.set(true);
+        DomainEvent event = publish();
+        awaitEvents();
+        
+        assertThat(firstListener.received).isEmpty();
+        assertThat(secondListener.received).containsExactly(event);
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+        
+        assertThat(domainEventBus.redeliverStale()).isEqualTo(1);
+        awaitEvents();
+        assertThat(firstListener.received).containsExactly(event);
+        assertThat(secondListener.received).containsExactly(event);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+    
+    @Test
+    void shouldParkEventThatKeepsFailingAfterMaxAttempts() throws InterruptedException {
+        firstListener.failing.set(true);
+        DomainEvent event = publish();
+        awaitEvents();
+        
+        assertThat(domainEventBus.redeliverStale()).isEqualTo(1);
+        awaitEvents();
+        
+        assertThat(outboxEventRepository.findAll()).singleElement()
+                .satisfies(row -> {
+                    assertThat(row.getAttempts()).isEqualTo(1);
+                    assertThat(row.getParkedAt()).isNotNull();
+                });
+        assertThat(domainEventBus.redeliverStale()).isZero();
+        assertThat(secondListener.received).containsExactly(event);
+    }
+    
+    @Test
+    void shouldDropUnreadableOutboxRows() {
+        LocalDateTime written = LocalDateTime.now().minusMinutes(1);
+        outboxEventRepository.save(new OutboxEvent(null, "WatchlistAdded", "not json", written, 0, null));
+        outboxEventRepository.save(new OutboxEvent(null, "NoSuchEvent", "{}", written, 0, null));
+        
+        assertThat(domainEventBus.redeliverStale()).isZero();
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(firstListener.received).isEmpty();
+    }
+    
+    @Test
+    void shouldDeliverEventsLeftInOutboxByStoppedInstance() throws InterruptedException {
+        // Written before a crash: committed, but never queued by this instance
+        DomainEvent event = new WatchlistAdded(nextMovieId++, 1L, LocalDateTime.now().minusHours(1));
+        outboxEventRepository.save(new OutboxEvent(null, "WatchlistAdded",
+                objectMapper.writeValueAsString(event), LocalDateTime.now().minusHours(1), 0, null));
+        
+        assertThat(domainEventBus.redeliverStale()).isEqualTo(1);
+        awaitEvents();
+        
+        assertThat(firstListener.received).containsExactly(event);
+        assertThat(secondListener.received).containsExactly(event);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+    
+    // Movies that do not exist, so the application's own listeners have nothing to move
+    private DomainEvent publish() {
+        DomainEvent event = new WatchlistAdded(nextMovieId++, 1L, LocalDateTime.now());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> domainEventBus.publish(event));
+        return event;
+    }
+    
+    private void awaitEvents() throws InterruptedException {
+        assertThat(domainEventBus.awaitIdle(Duration.ofSeconds(5))).isTrue();
+    }
+    
+    @TestConfiguration
+    static class RecordingListeners {
+        
+        @Bean
+        RecordingListener firstListener() {
+            return new RecordingListener();
+        }
+        
+        @Bean
+        RecordingListener secondListener() {
+            return new RecordingListener();
+        }
+    }
+    
+    static class RecordingListener implements DomainEventListener {
+        
+        final List<DomainEvent> received = new CopyOnWriteArrayList<>();
+        final AtomicBoolean failNext = new AtomicBoolean();
+        final AtomicBoolean failing = new AtomicBoolean();
+        final Semaphore entered = new Semaphore(0);
+        private volatile CountDownLatch gate;
+        
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            entered.release();
+            CountDownLatch held = gate;
+            if (held != null) {
+                try {
+                    held.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failNext.getAndSet(false) || failing.get()) {
+                throw new IllegalStateException("Listener failed");
+            }
+            received.addAll(events);
+        }
+        
+        // Blocks delivery until the returned latch is counted down
+        CountDownLatch hold() {
+            gate = new CountDownLatch(1);
+            return gate;
+        }
+        
+        void reset() {
+            received.clear();
+            failNext.set(false);
+            failing.set(false);
+            entered.drainPermits();
+            gate = null;
+        }
+    }
+}
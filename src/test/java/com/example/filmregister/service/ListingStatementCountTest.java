@@ -0,0 +1,144 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.response.ReviewResponse;
+import com.example.filmregister.dto.response.WatchlistCardResponse;
+import com.example.filmregister.dto.response.WatchlistResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.entity.Review;
+import com.example.filmregister.entity.User;
+import com.example.filmregister.entity.Watchlist;
+import com.example.filmregister.repository.MovieRepository;
+import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.UserRepository;
+import com.example.filmregister.repository.WatchlistRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts that watchlist and review listings load their associations in the same
+ * statement, however many rows they return.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.filmregister.service.SqlStatementCounter")
+@ActiveProfiles("test")
+@Transactional
+class ListingStatementCountTest {
+    
+    private static final int ROWS = 12;
+    
+    @Autowired
+    private WatchlistService watchlistService;
+    
+    @Autowired
+    private ReviewService reviewService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+    
+    @Autowired
+    private ReviewRepository reviewRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private User user;
+    private List<Movie> movies;
+    
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("lister");
+        user.setEmail("lister@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        user = userRepository.save(user);
+        
+        movies = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Movie movie = new Movie();
+            movie.setTitle("Listed Movie " + i);
+            movie = movieRepository.save(movie);
+            movies.add(movie);
+            
+            Watchlist watchlist = new Watchlist();
+            watchlist.setUser(user);
+            watchlist.setMovie(movie);
+            watchlistRepository.save(watchlist);
+            
+            Review review = new Review();
+            review.setUser(user);
+            review.setMovie(movie);
+            review.setRating(5);
+            reviewRepository.save(review);
+        }
+        
+        // Start from an empty persistence context, as a real request would
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+    }
+    
+    @Test
+    void shouldLoadWholeWatchlistInOneStatement() {
+        List<WatchlistResponse> watchlist = watchlistService.getWatchlist(user.getId(), null, null);
+        
+        assertThat(watchlist).hasSize(ROWS);
+        assertThat(watchlist.get(0).getMovie().getTitle()).isEqualTo("Listed Movie 0");
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+    }
+    
+    @Test
+    void shouldPageWatchlist() {
+        List<WatchlistResponse> page = watchlistService.getWatchlist(user.getId(), 1, 5);
+        
+        assertThat(page).extracting(entry -> entry.getMovie().getTitle())
+                .containsExactly("Listed Movie 5", "Listed Movie 6", "Listed Movie 7", "Listed Movie 8", "Listed Movie 9");
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+    }
+    
+    @Test
+    void shouldLoadWatchlistCardsWithoutLoadingEntities() {
+        List<WatchlistCardResponse> watchlist = watchlistService.getWatchlistCards(user.getId(), null, null);
+        
+        assertThat(watchlist).hasSize(ROWS);
+        assertThat(watchlist.get(0).getMovie().getTitle()).isEqualTo("Listed Movie 0");
+        assertThat(watchlist.get(0).getMovie().getId()).isEqualTo(movies.get(0).getId());
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+    
+    @Test
+    void shouldLoadUserReviewsInOneStatement() {
+        List<ReviewResponse> reviews = reviewService.getUserReviews(user.getId(), null, null);
+        
+        assertThat(reviews).hasSize(ROWS);
+        assertThat(reviews).allMatch(review -> "lister".equals(review.getUsername()));
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+    }
+    
+    @Test
+    void shouldLoadMovieReviewsPageInOneStatement() {
+        List<ReviewResponse> reviews = reviewService.getMovieReviews(movies.get(3).getId(), 0, 10);
+        
+        assertThat(reviews).hasSize(1);
+        assertThat(reviews.get(0).getMovieTitle()).isEqualTo("Listed Movie 3");
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+    }
+}
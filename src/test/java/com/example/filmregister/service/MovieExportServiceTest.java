@@ -0,0 +1,110 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.exception.TooManyRequestsException;
+import com.example.filmregister.repository.MovieRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class MovieExportServiceTest {
+    
+    @Autowired
+    private MovieExportService movieExportService;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private List<Movie> movies;
+    
+    @BeforeEach
+    void setUp() {
+        movies = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Movie movie = new Movie();
+            movie.setTitle("Exported Movie " + i);
+            movies.add(movieRepository.save(movie));
+        }
+        movieRepository.applyRatingDelta(movies.get(1).getId(), 2, 15);
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    @Test
+    void shouldWriteOneJsonLinePerMovieWithRatings() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        long count = movieExportService.exportNdjson(out, false);
+        
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        JsonNode rated = objectMapper.readTree(lines[1]);
+        assertThat(rated.get("title").asString()).isEqualTo("Exported Movie 1");
+        assertThat(rated.get("reviewCount").asLong()).isEqualTo(2);
+        assertThat(rated.get("averageRating").asDouble()).isEqualTo(7.5);
+    }
+    
+    @Test
+    void shouldGzipWhenRequested() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        movieExportService.exportNdjson(out, true);
+        
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String[] lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+            assertThat(lines).hasSize(3);
+            assertThat(objectMapper.readTree(lines[0]).get("id").asLong()).isEqualTo(movies.get(0).getId());
+        }
+    }
+    
+    @Test
+    void shouldRefuseExportWhileEverySlotIsTaken() {
+        // Two slots by default
+        movieExportService.acquireSlot();
+        movieExportService.acquireSlot();
+        try {
+            assertThatThrownBy(movieExportService::acquireSlot)
+                .isInstanceOf(TooManyRequestsException.class);
+            
+            movieExportService.releaseSlot();
+            movieExportService.acquireSlot();
+        } finally {
+            movieExportService.releaseSlot();
+            movieExportService.releaseSlot();
+        }
+    }
+    
+    @Test
+    void shouldNotKeepExportedMoviesInPersistenceContext() throws Exception {
+        movieExportService.exportNdjson(new ByteArrayOutputStream(), false);
+        
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+}
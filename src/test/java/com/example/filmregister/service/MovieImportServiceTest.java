@@ -0,0 +1,148 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.response.MovieImportError;
+import com.example.filmregister.dto.response.MovieImportResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.repository.MovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not @Transactional: every chunk commits in its own transaction. Chunks of two rows
+// so a few rows already span several of them.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importdb",
+        "movies.import.chunk-size=2",
+        "movies.import.max-reported-errors=2"
+})
+@ActiveProfiles("test")
+class MovieImportServiceTest {
+    
+    @Autowired
+    private MovieImportService movieImportService;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private MovieSearchIndex movieSearchIndex;
+    
+    @AfterEach
+    void tearDown() {
+        movieRepository.deleteAll();
+    }
+    
+    @Test
+    void shouldImportJsonAndUpsertByImdbId() {
+        MovieImportResponse first = movieImportService.importJson(body("""
+                [
+                  {"title": "Heat", "imdbId": "tt0113277", "releaseYear": 1995},
+                  {"title": "Ronin", "imdbId": "tt0122690"},
+                  {"title": "Untracked Short"}
+                ]
+                """), "importer");
+        
+        assertThat(first.getCreated()).isEqualTo(3);
+        assertThat(first.getFailed()).isZero();
+        assertThat(first.isCompleted()).isTrue();
+        
+        MovieImportResponse second = movieImportService.importJson(body("""
+                [{"title": "Heat", "imdbId": "tt0113277", "releaseYear": 1995, "director": "Michael Mann"}]
+                """), "importer");
+        
+        assertThat(second.getUpdated()).isEqualTo(1);
+        assertThat(second.getCreated()).isZero();
+        assertThat(movieRepository.count()).isEqualTo(3);
+        Movie heat = movieRepository.findByImdbIdIn(List.of("tt0113277")).get(0);
+        assertThat(heat.getDirector()).isEqualTo("Michael Mann");
+        assertThat(heat.getCreatedBy()).isEqualTo("importer");
+        assertThat(movieSearchIndex.search("mann", 10)).containsExactly(heat.getId());
+    }
+    
+    @Test
+    void shouldReportInvalidRowsAndImportTheRest() {
+        MovieImportResponse response = movieImportService.importJson(body("""
+                [
+                  {"title": "First"},
+                  {"description": "No title"},
+                  {"title": "Bad Year", "releaseYear": "soon"},
+                  {"title": "Last"}
+                ]
+                """), "importer");
+        
+        assertThat(response.getProcessed()).isEqualTo(4);
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting(MovieImportError::getRow).containsExactly(2, 3);
+        assertThat(response.getErrors().get(0).getMessage()).contains("Title is required");
+        assertThat(movieRepository.count()).isEqualTo(2);
+    }
+    
+    @Test
+    void shouldKeepRowsReadBeforeMalformedJson() {
+        MovieImportResponse response = movieImportService.importJson(body("""
+                [{"title": "One"}, {"title": "Two"}, {"title": "Thr
+                """), "importer");
+        
+        assertThat(response.isCompleted()).isFalse();
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).startsWith("Malformed JSON after row 2"));
+        assertThat(movieRepository.count()).isEqualTo(2);
+    }
+    
+    @Test
+    void shouldImportCsvWithQuotedValues() {
+        String csv = "Title,release_year,IMDB-ID,Type,Description\r\n"
+                + "\"Heat, The Director's Cut\",1995,tt0113277,movie,\"Says \"\"hi\"\"\nover two lines\"\r\n"
+                + "\r\n"
+                + "Solo,,,tv_series,\n"
+                + "Broken,nineteen,,,\n";
+        
+        MovieImportResponse response = movieImportService.importCsv(body(csv), "importer");
+        
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getErrors()).singleElement()
+                .satisfies(error -> {
+                    assertThat(error.getRow()).isEqualTo(3);
+                    assertThat(error.getMessage()).isEqualTo("Invalid releaseyear: 'nineteen'");
+                });
+        Movie heat = movieRepository.findByImdbIdIn(List.of("tt0113277")).get(0);
+        assertThat(heat.getTitle()).isEqualTo("Heat, The Director's Cut");
+        assertThat(heat.getReleaseYear()).isEqualTo(1995);
+        assertThat(heat.getDescription()).isEqualTo("Says \"hi\"\nover two lines");
+    }
+    
+    @Test
+    void shouldIsolateRowsRejectedByDatabase() {
+        String tooLong = "x".repeat(2001);
+        MovieImportResponse response = movieImportService.importJson(body(
+                "[{\"title\": \"Fits\"}, {\"title\": \"Too long\", \"description\": \"" + tooLong + "\"}]"), "importer");
+        
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getErrors().get(0).getRow()).isEqualTo(2);
+        assertThat(movieRepository.findAll()).extracting(Movie::getTitle).containsExactly("Fits");
+    }
+    
+    @Test
+    void shouldCapReportedErrors() {
+        MovieImportResponse response = movieImportService.importJson(body("[{}, {}, {}]"), "importer");
+        
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getErrors()).hasSize(2);
+    }
+    
+    private InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
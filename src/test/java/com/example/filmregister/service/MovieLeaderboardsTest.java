@@ -0,0 +1,199 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.request.ReviewRequest;
+import com.example.filmregister.dto.response.LeaderboardEntryResponse;
+import com.example.filmregister.dto.response.ReviewResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.entity.User;
+import com.example.filmregister.event.DomainEvent;
+import com.example.filmregister.event.DomainEvent.ReviewCreated;
+import com.example.filmregister.event.DomainEvent.ReviewUpdated;
+import com.example.filmregister.repository.MovieRepository;
+import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.UserRepository;
+import com.example.filmregister.repository.WatchlistRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Builds the leaderboards from a few reviewed movies, then checks that the events of
+ * reviews and watchlist additions written through the services move them without a rebuild.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:leaderboarddb")
+@ActiveProfiles("test")
+class MovieLeaderboardsTest {
+    
+    @Autowired
+    private MovieLeaderboards movieLeaderboards;
+    
+    @Autowired
+    private DomainEventBus domainEventBus;
+    
+    @Autowired
+    private MovieService movieService;
+    
+    @Autowired
+    private ReviewService reviewService;
+    
+    @Autowired
+    private WatchlistService watchlistService;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ReviewRepository reviewRepository;
+    
+    // Spied so a test can deliver events while a rebuild is loading
+    @MockitoSpyBean
+    private WatchlistRepository watchlistRepository;
+    
+    private Movie classic;
+    private Movie oneHit;
+    private Movie mediocre;
+    private final List<User> users = new ArrayList<>();
+    private ReviewResponse oneHitReview;
+    
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        classic = saveMovie("Classic");
+        oneHit = saveMovie("One Hit");
+        mediocre = saveMovie("Mediocre");
+        for (int i = 0; i < 10; i++) {
+            users.add(saveUser("user" + i));
+        }
+        
+        // A single perfect review against five strong ones: the prior keeps the single one below
+        for (int i = 0; i < 5; i++) {
+            review(classic, users.get(i), 9);
+            review(mediocre, users.get(i), 5);
+        }
+        oneHitReview = review(oneHit, users.get(5), 10);
+        
+        // Events from before the rebuild are skipped once it is done
+        awaitEvents();
+        movieLeaderboards.rebuild();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        users.clear();
+        watchlistRepository.deleteAll();
+        reviewRepository.deleteAll();
+        movieRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+    
+    @Test
+    void shouldRankTopRatedByBayesianAverage() {
+        List<LeaderboardEntryResponse> top = movieService.getTopMovies(10);
+        
+        assertThat(top).extracting(entry -> entry.getMovie().getTitle()).containsExactly("Classic", "One Hit", "Mediocre");
+        assertThat(top).extracting(LeaderboardEntryResponse::getRank).containsExactly(1, 2, 3);
+        // Catalog mean 80 / 11 weighted as 10 reviews, plus the movie's own 45 over 5
+        assertThat(top.get(0).getScore()).isCloseTo((800.0 / 11 + 45) / 15, within(1e-9));
+    }
+    
+    @Test
+    void shouldMoveMovieUpOnNewReviewsWithoutRebuild() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            review(oneHit, users.get(i), 10);
+        }
+        awaitEvents();
+        
+        assertThat(movieService.getTopMovies(1)).extracting(entry -> entry.getMovie().getTitle()).containsExactly("One Hit");
+    }
+    
+    @Test
+    void shouldRankTrendingByActivityIncludingWatchlist() throws InterruptedException {
+        assertThat(movieService.getTrendingMovies(10)).extracting(entry -> entry.getMovie().getTitle()).endsWith("One Hit");
+        
+        for (User user : users) {
+            watchlistService.addToWatchlist(oneHit.getId(), user.getId());
+        }
+        awaitEvents();
+        
+        List<LeaderboardEntryResponse> trending = movieService.getTrendingMovies(10);
+        assertThat(trending.get(0).getMovie().getTitle()).isEqualTo("One Hit");
+        // One review plus ten additions at half weight, barely decayed
+        assertThat(trending.get(0).getScore()).isCloseTo(6.0, within(0.01));
+    }
+    
+    @Test
+    void shouldTakeBackDeletedReview() throws InterruptedException {
+        reviewService.deleteReview(oneHitReview.getId(), users.get(5).getId());
+        awaitEvents();
+        
+        assertThat(movieService.getTopMovies(10)).extracting(entry -> entry.getMovie().getTitle())
+                .containsExactly("Classic", "Mediocre");
+        assertThat(movieService.getTrendingMovies(10)).extracting(entry -> entry.getMovie().getTitle())
+                .doesNotContain("One Hit");
+    }
+    
+    @Test
+    void shouldReplayOnlyHeldBackEventsTheLoadDidNotRead() {
+        Long classicReviewId = reviewRepository.findByMovieId(classic.getId()).get(0).getId();
+        // Heard after the rebuild's anchor: a review the load has read, and an edit it has not
+        List<DomainEvent> duringLoad = List.of(
+                new ReviewCreated(classicReviewId, classic.getId(), users.get(0).getId(), 9, LocalDateTime.now()),
+                new ReviewUpdated(oneHitReview.getId(), oneHit.getId(), users.get(5).getId(), 10, 1,
+                        LocalDateTime.now()));
+        doAnswer(invocation -> {
+            movieLeaderboards.onEvents(duringLoad);
+            return invocation.callRealMethod();
+        }).when(watchlistRepository).streamActivitySince(any());
+        
+        movieLeaderboards.rebuild();
+        
+        Map<String, Double> scores = movieService.getTopMovies(10).stream()
+                .collect(Collectors.toMap(entry -> entry.getMovie().getTitle(), LeaderboardEntryResponse::getScore));
+        assertThat(scores.get("Classic")).isCloseTo((800.0 / 11 + 45) / 15, within(1e-9));
+        assertThat(scores.get("One Hit")).isCloseTo((800.0 / 11 + 1) / 11, within(1e-9));
+    }
+    
+    private ReviewResponse review(Movie movie, User user, int rating) {
+        ReviewRequest request = new ReviewRequest();
+        request.setRating(rating);
+        return reviewService.addReview(movie.getId(), request, user.getId());
+    }
+    
+    private Movie saveMovie(String title) {
+        Movie movie = new Movie();
+        movie.setTitle(title);
+        return movieRepository.save(movie);
+    }
+    
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        return userRepository.save(user);
+    }
+    
+    // Listeners hear of service writes from the event bus's worker thread
+    private void awaitEvents() throws InterruptedException {
+        assertThat(domainEventBus.awaitIdle(Duration.ofSeconds(5))).isTrue();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.response.MovieSuggestionResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.entity.MovieType;
+import com.example.filmregister.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MovieSearchIndexTest {
+    
+    @Mock
+    private MovieRepository movieRepository;
+    
+    @InjectMocks
+    private MovieSearchIndex movieSearchIndex;
+    
+    @BeforeEach
+    void setUp() {
+        movieSearchIndex.index(movie(1L, "Inception", "A thief who steals corporate secrets through dreams",
+                "Christopher Nolan", "Leonardo DiCaprio", "Sci-Fi"));
+        movieSearchIndex.index(movie(2L, "The Prestige", "Two magicians engage in a rivalry, a film by Christopher Nolan",
+                "Christopher Nolan", "Hugh Jackman, Christian Bale", "Drama"));
+        movieSearchIndex.index(movie(3L, "Nolan's Diary", "A documentary",
+                "Someone Else", "Nobody", "Documentary"));
+        movieSearchIndex.index(movie(4L, "Amélie", "A shy waitress in Paris",
+                "Jean-Pierre Jeunet", "Audrey Tautou", "Romance"));
+    }
+    
+    @Test
+    void shouldRankTitleMatchesAboveDescriptionMatches() {
+        movieSearchIndex.index(movie(5L, "Dreams", "Eight vignettes", "Akira Kurosawa", null, "Fantasy"));
+        
+        List<Long> results = movieSearchIndex.search("dreams", 10);
+        
+        assertThat(results).containsExactly(5L, 1L);
+    }
+    
+    @Test
+    void shouldRequireEveryQueryTerm() {
+        assertThat(movieSearchIndex.search("christopher nolan", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(movieSearchIndex.search("nolan magicians", 10)).containsExactly(2L);
+    }
+    
+    @Test
+    void shouldMatchPrefixes() {
+        assertThat(movieSearchIndex.search("incep", 10)).containsExactly(1L);
+        assertThat(movieSearchIndex.search("christ ba", 10)).containsExactly(2L);
+    }
+    
+    @Test
+    void shouldIgnoreCaseAndAccents() {
+        assertThat(movieSearchIndex.search("AMELIE", 10)).containsExactly(4L);
+        assertThat(movieSearchIndex.search("sci-fi", 10)).containsExactly(1L);
+    }
+    
+    @Test
+    void shouldReplaceTermsOnReindex() {
+        movieSearchIndex.index(movie(1L, "Tenet", "Time inversion", "Christopher Nolan", "John David Washington", "Action"));
+        
+        assertThat(movieSearchIndex.search("inception", 10)).isEmpty();
+        assertThat(movieSearchIndex.search("tenet", 10)).containsExactly(1L);
+        assertThat(movieSearchIndex.size()).isEqualTo(4);
+    }
+    
+    @Test
+    void shouldForgetRemovedMovies() {
+        movieSearchIndex.remove(2L);
+        
+        assertThat(movieSearchIndex.search("prestige", 10)).isEmpty();
+        assertThat(movieSearchIndex.search("christopher", 10)).containsExactly(1L);
+    }
+    
+    @Test
+    void shouldLimitResults() {
+        assertThat(movieSearchIndex.search("a", 2)).hasSize(2);
+    }
+    
+    @Test
+    void shouldTolerateTypos() {
+        assertThat(movieSearchIndex.search("incpetion", 10)).containsExactly(1L);
+        assertThat(movieSearchIndex.search("nolen", 10)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+    
+    @Test
+    void shouldNotFuzzMatchShortTerms() {
+        assertThat(movieSearchIndex.search("bsle", 10)).containsExactly(2L);
+        assertThat(movieSearchIndex.search("shi", 10)).isEmpty();
+    }
+    
+    @Test
+    void shouldPreferExactMatchesOverTypoMatches() {
+        movieSearchIndex.index(movie(5L, "Nolen", "A short film", "Someone", null, "Short"));
+        
+        assertThat(movieSearchIndex.search("nolen", 10)).containsExactly(5L);
+    }
+    
+    @Test
+    void shouldSuggestMovieSummaries() {
+        List<MovieSuggestionResponse> suggestions = movieSearchIndex.suggest("prest", 5);
+        
+        assertThat(suggestions).hasSize(1);
+        assertThat(suggestions.get(0).getId()).isEqualTo(2L);
+        assertThat(suggestions.get(0).getTitle()).isEqualTo("The Prestige");
+        assertThat(suggestions.get(0).getReleaseYear()).isEqualTo(2006);
+        assertThat(suggestions.get(0).getType()).isEqualTo(MovieType.MOVIE);
+    }
+    
+    @Test
+    void shouldNotSuggestFromDescriptions() {
+        assertThat(movieSearchIndex.search("magicians", 5)).containsExactly(2L);
+        assertThat(movieSearchIndex.suggest("magicians", 5)).isEmpty();
+        // Nolan directed The Prestige as well as appearing in its description
+        assertThat(movieSearchIndex.suggest("nolan", 5)).extracting(MovieSuggestionResponse::getId)
+                .containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+    
+    @Test
+    void shouldDropSuggestionsOfRemovedMovies() {
+        movieSearchIndex.remove(2L);
+        
+        assertThat(movieSearchIndex.suggest("prestige", 5)).isEmpty();
+        assertThat(movieSearchIndex.suggest("prestiege", 5)).isEmpty();
+    }
+    
+    @Test
+    void shouldBoundEditDistance() {
+        assertThat(MovieSearchIndex.editDistance("nolan", "nolan", 1)).isZero();
+        assertThat(MovieSearchIndex.editDistance("nolan", "nolen", 1)).isEqualTo(1);
+        assertThat(MovieSearchIndex.editDistance("inception", "incpetion", 2)).isEqualTo(2);
+        assertThat(MovieSearchIndex.editDistance("inception", "interstellar", 2)).isEqualTo(3);
+    }
+    
+    @Test
+    void shouldKeepChangesMadeWhileRebuilding() {
+        // The page is read before movie 1 is renamed and movie 2 deleted, as if those commits raced the rebuild
+        when(movieRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(invocation -> {
+            List<Movie> page = List.of(
+                    movie(1L, "Inception", "Dreams", "Christopher Nolan", "Leonardo DiCaprio", "Sci-Fi"),
+                    movie(2L, "The Prestige", "Magicians", "Christopher Nolan", "Hugh Jackman", "Drama"));
+            movieSearchIndex.index(movie(1L, "Tenet", "Time inversion", "Christopher Nolan", "John David Washington",
+                    "Action"));
+            movieSearchIndex.remove(2L);
+            return page;
+        });
+        
+        movieSearchIndex.rebuild();
+        
+        assertThat(movieSearchIndex.search("tenet", 10)).containsExactly(1L);
+        assertThat(movieSearchIndex.search("inception", 10)).isEmpty();
+        assertThat(movieSearchIndex.search("prestige", 10)).isEmpty();
+        assertThat(movieSearchIndex.size()).isEqualTo(1);
+    }
+    
+    private Movie movie(Long id, String title, String description, String director, String actors, String genre) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(title);
+        movie.setDescription(description);
+        movie.setDirector(director);
+        movie.setActors(actors);
+        movie.setGenre(genre);
+        movie.setReleaseYear(2006);
+        return movie;
+    }
+}
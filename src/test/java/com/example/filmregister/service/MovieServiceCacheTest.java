@@ -0,0 +1,85 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.config.CacheConfig;
+import com.example.filmregister.dto.request.MovieRequest;
+import com.example.filmregister.dto.response.MovieResponse;
+import com.example.filmregister.repository.MovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not @Transactional: cache puts and evictions only happen once a transaction commits
+@SpringBootTest
+@ActiveProfiles("test")
+class MovieServiceCacheTest {
+    
+    @Autowired
+    private MovieService movieService;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    private Cache moviesCache;
+    private MovieRequest request;
+    
+    @BeforeEach
+    void setUp() {
+        moviesCache = cacheManager.getCache(CacheConfig.MOVIES_CACHE);
+        moviesCache.clear();
+        
+        request = new MovieRequest();
+        request.setTitle("Cached Movie");
+        request.setDirector("Some Director");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        movieRepository.deleteAll();
+        moviesCache.clear();
+    }
+    
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        Long id = movieService.createMovie(request, "testuser").getId();
+        
+        MovieResponse first = movieService.getMovie(id);
+        movieRepository.deleteAll();
+        MovieResponse second = movieService.getMovie(id);
+        
+        assertThat(second).isSameAs(first);
+        assertThat(moviesCache.get(id)).isNotNull();
+    }
+    
+    @Test
+    void shouldEvictOnUpdate() {
+        Long id = movieService.createMovie(request, "testuser").getId();
+        movieService.getMovie(id);
+        
+        request.setTitle("Renamed Movie");
+        request.setVersion(0L);
+        movieService.updateMovie(id, request);
+        
+        assertThat(moviesCache.get(id)).isNull();
+        assertThat(movieService.getMovie(id).getTitle()).isEqualTo("Renamed Movie");
+    }
+    
+    @Test
+    void shouldEvictOnDelete() {
+        Long id = movieService.createMovie(request, "testuser").getId();
+        movieService.getMovie(id);
+        
+        movieService.deleteMovie(id);
+        
+        assertThat(moviesCache.get(id)).isNull();
+    }
+}
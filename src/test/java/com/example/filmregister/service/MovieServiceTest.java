@@ -1,30 +1,38 @@
 package com.example.filmregister.service;
 
+import com.example.filmregister.dto.request.MoviePatchRequest;
 import com.example.filmregister.dto.request.MovieRequest;
+import com.example.filmregister.dto.response.CursorPageResponse;
 import com.example.filmregister.dto.response.MovieResponse;
+import com.example.filmregister.dto.response.MovieSuggestionResponse;
 import com.example.filmregister.entity.Movie;
 import com.example.filmregister.entity.MovieType;
+import com.example.filmregister.event.DomainEvent.MovieDeleted;
+import com.example.filmregister.exception.BadRequestException;
+import com.example.filmregister.exception.ConflictException;
 import com.example.filmregister.exception.ResourceNotFoundException;
 import com.example.filmregister.repository.MovieRepository;
-import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.MovieRepository.MovieCard;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
-import static org.mockito.Mockito.lenient;
 
 @ExtendWith(MockitoExtension.class)
 class MovieServiceTest {
@@ -33,7 +41,16 @@ class MovieServiceTest {
     private MovieRepository movieRepository;
     
     @Mock
-    private ReviewRepository reviewRepository;
+    private MovieSearchIndex movieSearchIndex;
+    
+    @Mock
+    private MovieSimilarityIndex movieSimilarityIndex;
+    
+    @Mock
+    private MovieLeaderboards movieLeaderboards;
+    
+    @Mock
+    private DomainEventBus domainEventBus;
     
     @InjectMocks
     private MovieService movieService;
@@ -53,6 +70,7 @@ class MovieServiceTest {
         movie.setType(MovieType.MOVIE);
         movie.setCreatedAt(LocalDateTime.now());
         movie.setUpdatedAt(LocalDateTime.now());
+        movie.setVersion(3L);
         
         movieRequest = new MovieRequest();
         movieRequest.setTitle("Test Movie");
@@ -61,9 +79,6 @@ class MovieServiceTest {
         movieRequest.setGenre("Action");
         movieRequest.setDirector("Test Director");
         movieRequest.setType(MovieType.MOVIE);
-        
-        // Mock reviewRepository to return empty list by default (lenient for tests that don't need it)
-        lenient().when(reviewRepository.findByMovieId(any())).thenReturn(Collections.emptyList());
     }
     
     @Test
@@ -88,6 +103,29 @@ class MovieServiceTest {
         verify(movieRepository, times(1)).findById(1L);
     }
     
+    @Test
+    void shouldReadRatingFromPrecomputedAggregates() {
+        movie.setReviewCount(4L);
+        movie.setRatingSum(30L);
+        movie.setAverageRating(7.5);
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        
+        MovieResponse response = movieService.getMovie(1L);
+        
+        assertThat(response.getAverageRating()).isEqualTo(7.5);
+        assertThat(response.getReviewCount()).isEqualTo(4L);
+    }
+    
+    @Test
+    void shouldReturnNullAverageRatingWhenMovieHasNoReviews() {
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        
+        MovieResponse response = movieService.getMovie(1L);
+        
+        assertThat(response.getAverageRating()).isNull();
+        assertThat(response.getReviewCount()).isZero();
+    }
+    
     @Test
     void shouldThrowExceptionWhenMovieNotFound() {
         when(movieRepository.findById(999L)).thenReturn(Optional.empty());
@@ -98,40 +136,168 @@ class MovieServiceTest {
     }
     
     @Test
-    void shouldGetAllMovies() {
+    void shouldReturnNextCursorWhenMoreMoviesExist() {
+        Movie movie2 = new Movie();
+        movie2.setId(2L);
+        movie2.setTitle("Movie 2");
+        Movie movie3 = new Movie();
+        movie3.setId(3L);
+        movie3.setTitle("Movie 3");
+        when(movieRepository.findCardPageById(eq(0L), any(Pageable.class)))
+            .thenReturn(cards(movie, movie2, movie3));
+        when(movieRepository.findAllById(any())).thenReturn(Arrays.asList(movie, movie2, movie3));
+        
+        CursorPageResponse<MovieResponse> page = movieService.getMoviesPage(null, null, null, 2);
+        
+        assertThat(page.getItems()).extracting(MovieResponse::getId).containsExactly(1L, 2L);
+        assertThat(page.getNextCursor()).isNotNull();
+        
+        when(movieRepository.findCardPageById(eq(2L), any(Pageable.class)))
+            .thenReturn(cards(movie3));
+        
+        CursorPageResponse<MovieResponse> next = movieService.getMoviesPage(null, null, page.getNextCursor(), 2);
+        
+        assertThat(next.getItems()).extracting(MovieResponse::getId).containsExactly(3L);
+        assertThat(next.getNextCursor()).isNull();
+    }
+    
+    @Test
+    void shouldResumeRatingSortFromCursor() {
+        movie.setReviewCount(2L);
+        movie.setAverageRating(8.5);
         Movie movie2 = new Movie();
         movie2.setId(2L);
         movie2.setTitle("Movie 2");
-        when(movieRepository.findAll()).thenReturn(Arrays.asList(movie, movie2));
+        when(movieRepository.findCardPageByAverageRating(eq(MovieType.MOVIE), eq(Double.MAX_VALUE), eq(0L), any(Pageable.class)))
+            .thenReturn(cards(movie, movie2));
+        when(movieRepository.findCardPageByAverageRating(eq(MovieType.MOVIE), eq(8.5), eq(1L), any(Pageable.class)))
+            .thenReturn(cards(movie2));
+        when(movieRepository.findAllById(any())).thenReturn(Arrays.asList(movie, movie2));
         
-        List<MovieResponse> responses = movieService.getAllMovies();
+        CursorPageResponse<MovieResponse> page = movieService.getMoviesPage(MovieType.MOVIE, "rating", null, 1);
+        CursorPageResponse<MovieResponse> next = movieService.getMoviesPage(MovieType.MOVIE, "rating", page.getNextCursor(), 1);
         
-        assertThat(responses).hasSize(2);
-        verify(movieRepository, times(1)).findAll();
+        assertThat(page.getItems()).extracting(MovieResponse::getId).containsExactly(1L);
+        assertThat(next.getItems()).extracting(MovieResponse::getId).containsExactly(2L);
     }
     
     @Test
-    void shouldSearchMovies() {
-        when(movieRepository.searchMovies("test")).thenReturn(Arrays.asList(movie));
+    void shouldRejectCursorIssuedForAnotherSort() {
+        Movie movie2 = new Movie();
+        movie2.setId(2L);
+        when(movieRepository.findCardPageById(eq(0L), any(Pageable.class)))
+            .thenReturn(cards(movie, movie2));
+        when(movieRepository.findAllById(any())).thenReturn(Arrays.asList(movie));
+        
+        String cursor = movieService.getMoviesPage(null, null, null, 1).getNextCursor();
+        
+        assertThatThrownBy(() -> movieService.getMoviesPage(null, "imdb", cursor, 1))
+            .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> movieService.getMoviesPage(null, null, "not-a-cursor", 1))
+            .isInstanceOf(BadRequestException.class);
+    }
+    
+    @Test
+    void shouldContinueWithUnratedTitlesAfterImdbRatedOnes() {
+        movie.setImdbRating(8.0);
+        Movie unrated = new Movie();
+        unrated.setId(5L);
+        unrated.setTitle("Unrated");
+        when(movieRepository.findCardPageByImdbRating(eq(Double.MAX_VALUE), eq(0L), any(Pageable.class)))
+            .thenReturn(cards(movie));
+        when(movieRepository.findCardPageWithoutImdbRating(eq(0L), any(Pageable.class)))
+            .thenReturn(cards(unrated));
+        when(movieRepository.findAllById(any())).thenReturn(Arrays.asList(movie, unrated));
+        
+        CursorPageResponse<MovieResponse> page = movieService.getMoviesPage(null, "imdb", null, 10);
+        
+        assertThat(page.getItems()).extracting(MovieResponse::getId).containsExactly(1L, 5L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+    
+    @Test
+    void shouldSearchMoviesInIndexRankOrder() {
+        Movie movie2 = new Movie();
+        movie2.setId(2L);
+        movie2.setTitle("Test Movie 2");
+        when(movieSearchIndex.search(eq("test"), anyInt())).thenReturn(Arrays.asList(2L, 1L));
+        when(movieRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(movie, movie2));
         
         List<MovieResponse> responses = movieService.searchMovies("test");
         
-        assertThat(responses).hasSize(1);
-        assertThat(responses.get(0).getTitle()).isEqualTo("Test Movie");
-        verify(movieRepository, times(1)).searchMovies("test");
+        assertThat(responses).extracting(MovieResponse::getId).containsExactly(2L, 1L);
+        verify(movieRepository, never()).searchMovies(any());
+    }
+    
+    @Test
+    void shouldNotQueryDatabaseWhenSearchHasNoMatches() {
+        when(movieSearchIndex.search(eq("nothing"), anyInt())).thenReturn(List.of());
+        
+        assertThat(movieService.searchMovies("nothing")).isEmpty();
+        verifyNoInteractions(movieRepository);
+    }
+    
+    @Test
+    void shouldSuggestFromIndexWithCappedLimit() {
+        MovieSuggestionResponse suggestion = new MovieSuggestionResponse(1L, "Test Movie", 2024, MovieType.MOVIE, null);
+        when(movieSearchIndex.suggest("tes", 20)).thenReturn(List.of(suggestion));
+        
+        List<MovieSuggestionResponse> responses = movieService.suggestMovies("tes", 500);
+        
+        assertThat(responses).containsExactly(suggestion);
+        verifyNoInteractions(movieRepository);
     }
     
     @Test
     void shouldUpdateMovie() {
         when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
-        when(movieRepository.save(any(Movie.class))).thenReturn(movie);
+        when(movieRepository.saveAndFlush(any(Movie.class))).thenReturn(movie);
         
         movieRequest.setTitle("Updated Title");
+        movieRequest.setVersion(3L);
         MovieResponse response = movieService.updateMovie(1L, movieRequest);
         
         assertThat(response.getTitle()).isEqualTo("Updated Title");
         verify(movieRepository, times(1)).findById(1L);
-        verify(movieRepository, times(1)).save(any(Movie.class));
+        verify(movieRepository, times(1)).saveAndFlush(any(Movie.class));
+        verify(movieSearchIndex, times(1)).index(movie);
+    }
+    
+    @Test
+    void shouldRejectUpdateOfStaleVersion() {
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        
+        movieRequest.setVersion(2L);
+        
+        assertThatThrownBy(() -> movieService.updateMovie(1L, movieRequest))
+            .isInstanceOf(ConflictException.class)
+            .hasMessageContaining("modified by someone else");
+        verify(movieRepository, never()).saveAndFlush(any(Movie.class));
+    }
+    
+    @Test
+    void shouldRejectUpdateWithoutVersion() {
+        assertThatThrownBy(() -> movieService.updateMovie(1L, movieRequest))
+            .isInstanceOf(BadRequestException.class)
+            .hasMessageContaining("Version is required");
+        verify(movieRepository, never()).saveAndFlush(any(Movie.class));
+    }
+    
+    @Test
+    void shouldPatchOnlyPresentFields() {
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        when(movieRepository.saveAndFlush(any(Movie.class))).thenReturn(movie);
+        
+        MoviePatchRequest patch = new MoviePatchRequest();
+        patch.setDirector("New Director");
+        patch.setVersion(3L);
+        MovieResponse response = movieService.patchMovie(1L, patch);
+        
+        assertThat(response.getDirector()).isEqualTo("New Director");
+        assertThat(response.getTitle()).isEqualTo("Test Movie");
+        assertThat(response.getDescription()).isEqualTo("Test Description");
+        assertThat(response.getVersion()).isEqualTo(3L);
+        verify(movieSearchIndex, times(1)).index(movie);
     }
     
     @Test
@@ -143,6 +309,9 @@ class MovieServiceTest {
         
         verify(movieRepository, times(1)).findById(1L);
         verify(movieRepository, times(1)).delete(movie);
+        verify(movieSearchIndex, times(1)).remove(1L);
+        verify(domainEventBus, times(1)).publish(argThat(event -> event instanceof MovieDeleted deleted
+                && deleted.movieId().equals(1L)));
     }
     
     @Test
@@ -153,77 +322,21 @@ class MovieServiceTest {
             .isInstanceOf(ResourceNotFoundException.class);
     }
     
-    @Test
-    void shouldSortMoviesByImdbRating() {
-        // Create movies with different IMDB ratings
-        Movie movie1 = new Movie();
-        movie1.setId(1L);
-        movie1.setTitle("Movie 1");
-        movie1.setImdbRating(7.5);
-        movie1.setType(MovieType.MOVIE);
-        movie1.setCreatedAt(LocalDateTime.now());
-        movie1.setUpdatedAt(LocalDateTime.now());
-        
-        Movie movie2 = new Movie();
-        movie2.setId(2L);
-        movie2.setTitle("Movie 2");
-        movie2.setImdbRating(9.0);
-        movie2.setType(MovieType.MOVIE);
-        movie2.setCreatedAt(LocalDateTime.now());
-        movie2.setUpdatedAt(LocalDateTime.now());
-        
-        Movie movie3 = new Movie();
-        movie3.setId(3L);
-        movie3.setTitle("Movie 3");
-        movie3.setImdbRating(8.2);
-        movie3.setType(MovieType.MOVIE);
-        movie3.setCreatedAt(LocalDateTime.now());
-        movie3.setUpdatedAt(LocalDateTime.now());
-        
-        when(movieRepository.findByType(MovieType.MOVIE)).thenReturn(Arrays.asList(movie1, movie2, movie3));
-        
-        List<MovieResponse> responses = movieService.getMoviesByType(MovieType.MOVIE, "imdb");
-        
-        assertThat(responses).hasSize(3);
-        assertThat(responses.get(0).getImdbRating()).isEqualTo(9.0);
-        assertThat(responses.get(1).getImdbRating()).isEqualTo(8.2);
-        assertThat(responses.get(2).getImdbRating()).isEqualTo(7.5);
+    private static List<MovieCard> cards(Movie... movies) {
+        return Arrays.stream(movies).map(MovieServiceTest::card).toList();
     }
     
-    @Test
-    void shouldHandleNullImdbRatingsWhenSorting() {
-        // Create movies with some null IMDB ratings
-        Movie movie1 = new Movie();
-        movie1.setId(1L);
-        movie1.setTitle("Movie 1");
-        movie1.setImdbRating(7.5);
-        movie1.setType(MovieType.MOVIE);
-        movie1.setCreatedAt(LocalDateTime.now());
-        movie1.setUpdatedAt(LocalDateTime.now());
-        
-        Movie movie2 = new Movie();
-        movie2.setId(2L);
-        movie2.setTitle("Movie 2");
-        movie2.setImdbRating(null);  // No IMDB rating
-        movie2.setType(MovieType.MOVIE);
-        movie2.setCreatedAt(LocalDateTime.now());
-        movie2.setUpdatedAt(LocalDateTime.now());
-        
-        Movie movie3 = new Movie();
-        movie3.setId(3L);
-        movie3.setTitle("Movie 3");
-        movie3.setImdbRating(8.2);
-        movie3.setType(MovieType.MOVIE);
-        movie3.setCreatedAt(LocalDateTime.now());
-        movie3.setUpdatedAt(LocalDateTime.now());
-        
-        when(movieRepository.findByType(MovieType.MOVIE)).thenReturn(Arrays.asList(movie1, movie2, movie3));
-        
-        List<MovieResponse> responses = movieService.getMoviesByType(MovieType.MOVIE, "imdb");
-        
-        assertThat(responses).hasSize(3);
-        assertThat(responses.get(0).getImdbRating()).isEqualTo(8.2);
-        assertThat(responses.get(1).getImdbRating()).isEqualTo(7.5);
-        assertThat(responses.get(2).getImdbRating()).isNull();  // Null ratings should be last
+    private static MovieCard card(Movie movie) {
+        return new MovieCard() {
+            public Long getId() { return movie.getId(); }
+            public String getTitle() { return movie.getTitle(); }
+            public Integer getReleaseYear() { return movie.getReleaseYear(); }
+            public MovieType getType() { return movie.getType(); }
+            public String getImageUrl() { return movie.getImageUrl(); }
+            public Double getImdbRating() { return movie.getImdbRating(); }
+            public Double getAverageRating() { return movie.getAverageRating(); }
+            public Long getReviewCount() { return movie.getReviewCount(); }
+            public Long getVersion() { return movie.getVersion(); }
+        };
     }
 }
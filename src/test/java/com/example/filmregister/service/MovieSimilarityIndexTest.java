@@ -0,0 +1,187 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.request.ReviewRequest;
+import com.example.filmregister.dto.response.MovieCardResponse;
+import com.example.filmregister.dto.response.ReviewResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.entity.Review;
+import com.example.filmregister.entity.User;
+import com.example.filmregister.repository.MovieRepository;
+import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.UserRepository;
+import com.example.filmregister.repository.WatchlistRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds the similarity index from a small rating matrix, then checks that incremental
+ * refreshes pick up reviews and watchlist entries written through the services.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:similaritydb")
+@ActiveProfiles("test")
+class MovieSimilarityIndexTest {
+    
+    @Autowired
+    private MovieSimilarityIndex movieSimilarityIndex;
+    
+    @Autowired
+    private DomainEventBus domainEventBus;
+    
+    @Autowired
+    private MovieService movieService;
+    
+    @Autowired
+    private ReviewService reviewService;
+    
+    @Autowired
+    private WatchlistService watchlistService;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ReviewRepository reviewRepository;
+    
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+    
+    private Movie alien;
+    private Movie aliens;
+    private Movie notebook;
+    private Movie predator;
+    private User first;
+    private User second;
+    private User third;
+    private User fourth;
+    
+    @BeforeEach
+    void setUp() {
+        alien = saveMovie("Alien");
+        aliens = saveMovie("Aliens");
+        notebook = saveMovie("The Notebook");
+        predator = saveMovie("Predator");
+        first = saveUser("first");
+        second = saveUser("second");
+        third = saveUser("third");
+        fourth = saveUser("fourth");
+        
+        // Alien and Aliens are liked together; The Notebook is disliked by the same people
+        saveReview(first, alien, 9);
+        saveReview(first, aliens, 9);
+        saveReview(first, notebook, 2);
+        saveReview(second, alien, 8);
+        saveReview(second, aliens, 10);
+        saveReview(third, alien, 9);
+        saveReview(third, aliens, 8);
+        saveReview(third, notebook, 3);
+        saveReview(fourth, notebook, 9);
+        saveReview(fourth, predator, 9);
+        
+        movieSimilarityIndex.rebuild();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        watchlistRepository.deleteAll();
+        reviewRepository.deleteAll();
+        movieRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+    
+    @Test
+    void shouldRankMoviesLikedTogetherAndSkipOpposedTaste() {
+        assertThat(movieSimilarityIndex.similarMovieIds(alien.getId(), 10)).containsExactly(aliens.getId());
+        assertThat(movieSimilarityIndex.similarMovieIds(aliens.getId(), 10)).containsExactly(alien.getId());
+        assertThat(movieSimilarityIndex.similarMovieIds(notebook.getId(), 10)).containsExactly(predator.getId());
+    }
+    
+    @Test
+    void shouldServeSimilarMoviesAsCards() {
+        List<MovieCardResponse> similar = movieService.getSimilarMovies(alien.getId(), 5);
+        
+        assertThat(similar).extracting(MovieCardResponse::getTitle).containsExactly("Aliens");
+    }
+    
+    @Test
+    void shouldPickUpNewReviewOnRefreshOnly() throws InterruptedException {
+        ReviewRequest request = new ReviewRequest();
+        request.setRating(10);
+        reviewService.addReview(predator.getId(), request, first.getId());
+        awaitEvents();
+        
+        assertThat(movieSimilarityIndex.similarMovieIds(predator.getId(), 10)).doesNotContain(alien.getId());
+        
+        assertThat(movieSimilarityIndex.refresh()).isEqualTo(1);
+        assertThat(movieSimilarityIndex.similarMovieIds(predator.getId(), 10)).contains(alien.getId(), aliens.getId());
+        // The new pairs are patched into the other movies' lists as well
+        assertThat(movieSimilarityIndex.similarMovieIds(alien.getId(), 10)).contains(predator.getId());
+        assertThat(movieSimilarityIndex.refresh()).isZero();
+    }
+    
+    @Test
+    void shouldDropPairWhenLastSharedReviewIsDeleted() throws InterruptedException {
+        ReviewRequest request = new ReviewRequest();
+        request.setRating(10);
+        ReviewResponse added = reviewService.addReview(predator.getId(), request, second.getId());
+        awaitEvents();
+        movieSimilarityIndex.refresh();
+        assertThat(movieSimilarityIndex.similarMovieIds(aliens.getId(), 10)).contains(predator.getId());
+        
+        reviewService.deleteReview(added.getId(), second.getId());
+        awaitEvents();
+        movieSimilarityIndex.refresh();
+        
+        assertThat(movieSimilarityIndex.similarMovieIds(aliens.getId(), 10)).doesNotContain(predator.getId());
+        assertThat(movieSimilarityIndex.similarMovieIds(predator.getId(), 10)).containsExactly(notebook.getId());
+    }
+    
+    @Test
+    void shouldCountWatchlistEntriesAsInterest() throws InterruptedException {
+        watchlistService.addToWatchlist(predator.getId(), second.getId());
+        watchlistService.addToWatchlist(predator.getId(), third.getId());
+        awaitEvents();
+        movieSimilarityIndex.refresh();
+        
+        assertThat(movieSimilarityIndex.similarMovieIds(predator.getId(), 10)).contains(aliens.getId());
+    }
+    
+    private Movie saveMovie(String title) {
+        Movie movie = new Movie();
+        movie.setTitle(title);
+        return movieRepository.save(movie);
+    }
+    
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        return userRepository.save(user);
+    }
+    
+    private void saveReview(User user, Movie movie, int rating) {
+        Review review = new Review();
+        review.setUser(user);
+        review.setMovie(movie);
+        review.setRating(rating);
+        reviewRepository.save(review);
+    }
+    
+    // Listeners hear of service writes from the event bus's worker thread
+    private void awaitEvents() throws InterruptedException {
+        assertThat(domainEventBus.awaitIdle(Duration.ofSeconds(5))).isTrue();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.request.MoviePatchRequest;
+import com.example.filmregister.dto.request.MovieRequest;
+import com.example.filmregister.dto.response.MovieResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.exception.ConflictException;
+import com.example.filmregister.repository.MovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Not @Transactional: each service call commits, as separate requests would
+@SpringBootTest
+@ActiveProfiles("test")
+class MovieVersioningTest {
+    
+    @Autowired
+    private MovieService movieService;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @AfterEach
+    void tearDown() {
+        movieRepository.deleteAll();
+    }
+    
+    @Test
+    void shouldReturnIncrementedVersionAfterEachEdit() {
+        MovieResponse created = movieService.createMovie(request("Versioned"), "testuser");
+        assertThat(created.getVersion()).isZero();
+        
+        MoviePatchRequest patch = new MoviePatchRequest();
+        patch.setGenre("Drama");
+        patch.setVersion(0L);
+        MovieResponse patched = movieService.patchMovie(created.getId(), patch);
+        assertThat(patched.getVersion()).isEqualTo(1L);
+        
+        MovieRequest update = request("Versioned Again");
+        update.setVersion(1L);
+        assertThat(movieService.updateMovie(created.getId(), update).getVersion()).isEqualTo(2L);
+    }
+    
+    @Test
+    void shouldRejectEditBasedOnOutdatedVersion() {
+        Long id = movieService.createMovie(request("Contested"), "testuser").getId();
+        MovieRequest first = request("First Editor");
+        first.setVersion(0L);
+        movieService.updateMovie(id, first);
+        
+        MovieRequest second = request("Second Editor");
+        second.setVersion(0L);
+        
+        assertThatThrownBy(() -> movieService.updateMovie(id, second))
+                .isInstanceOf(ConflictException.class);
+        assertThat(movieRepository.findById(id)).get().extracting(Movie::getTitle).isEqualTo("First Editor");
+    }
+    
+    @Test
+    void shouldFailWriteOfStaleEntity() {
+        Long id = movieService.createMovie(request("Raced"), "testuser").getId();
+        Movie stale = movieRepository.findById(id).orElseThrow();
+        MovieRequest winner = request("Winner");
+        winner.setVersion(0L);
+        movieService.updateMovie(id, winner);
+        
+        stale.setTitle("Loser");
+        
+        assertThatThrownBy(() -> movieRepository.saveAndFlush(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+    
+    @Test
+    void shouldNotBumpVersionForRatingAggregates() {
+        Long id = movieService.createMovie(request("Rated"), "testuser").getId();
+        
+        movieRepository.applyRatingDelta(id, 1, 8);
+        
+        Movie movie = movieRepository.findById(id).orElseThrow();
+        assertThat(movie.getReviewCount()).isEqualTo(1L);
+        assertThat(movie.getVersion()).isZero();
+    }
+    
+    private MovieRequest request(String title) {
+        MovieRequest request = new MovieRequest();
+        request.setTitle(title);
+        return request;
+    }
+}
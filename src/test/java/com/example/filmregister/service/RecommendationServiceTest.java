@@ -0,0 +1,174 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.request.ReviewRequest;
+import com.example.filmregister.dto.response.MovieCardResponse;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.entity.Review;
+import com.example.filmregister.entity.User;
+import com.example.filmregister.entity.Watchlist;
+import com.example.filmregister.repository.MovieRepository;
+import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.UserRepository;
+import com.example.filmregister.repository.WatchlistRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Computes feeds over a small catalog: neighbours of the movies a user liked come first,
+ * then movies sharing their genre and director; seen movies never appear.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:recommendationdb")
+@ActiveProfiles("test")
+class RecommendationServiceTest {
+    
+    @Autowired
+    private RecommendationService recommendationService;
+    
+    @Autowired
+    private MovieSimilarityIndex movieSimilarityIndex;
+    
+    @Autowired
+    private DomainEventBus domainEventBus;
+    
+    @Autowired
+    private ReviewService reviewService;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ReviewRepository reviewRepository;
+    
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+    
+    private Movie alien;
+    private Movie aliens;
+    private Movie bladeRunner;
+    private User fan;
+    
+    @BeforeEach
+    void setUp() {
+        alien = saveMovie("Alien", "Sci-Fi", "Ridley Scott");
+        aliens = saveMovie("Aliens", "Sci-Fi", "James Cameron");
+        bladeRunner = saveMovie("Blade Runner", "Sci-Fi", "Ridley Scott");
+        saveMovie("The Notebook", "Romance", "Nick Cassavetes");
+        saveMovie("Titanic", "Romance", "James Cameron");
+        User first = saveUser("first");
+        User second = saveUser("second");
+        fan = saveUser("fan");
+        
+        saveReview(first, alien, 9);
+        saveReview(first, aliens, 9);
+        saveReview(second, alien, 8);
+        saveReview(second, aliens, 10);
+        saveReview(fan, alien, 10);
+        
+        movieSimilarityIndex.rebuild();
+        // Reloads the popularity ranking over this test's catalog
+        recommendationService.refreshFeeds();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        watchlistRepository.deleteAll();
+        reviewRepository.deleteAll();
+        movieRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+    
+    @Test
+    void shouldServePopularMoviesUntilFeedIsComputed() {
+        assertThat(recommendationService.getRecommendations(fan.getId(), 10)).hasSize(4)
+                .extracting(MovieCardResponse::getId).doesNotContain(alien.getId());
+        
+        assertThat(recommendationService.refreshFeeds()).isEqualTo(1);
+        List<MovieCardResponse> feed = recommendationService.getRecommendations(fan.getId(), 10);
+        
+        assertThat(feed).extracting(MovieCardResponse::getTitle).startsWith("Aliens", "Blade Runner");
+        assertThat(feed).extracting(MovieCardResponse::getId).doesNotContain(alien.getId());
+        assertThat(recommendationService.refreshFeeds()).isZero();
+    }
+    
+    @Test
+    void shouldLeaveWatchlistedMoviesOutOfPopularFallback() {
+        Watchlist watchlist = new Watchlist();
+        watchlist.setUser(fan);
+        watchlist.setMovie(bladeRunner);
+        watchlistRepository.save(watchlist);
+        
+        assertThat(recommendationService.getRecommendations(fan.getId(), 10))
+                .extracting(MovieCardResponse::getId).hasSize(3).doesNotContain(alien.getId(), bladeRunner.getId());
+    }
+    
+    @Test
+    void shouldRecomputeCachedFeedAfterReview() throws InterruptedException {
+        recommendationService.getRecommendations(fan.getId(), 10);
+        recommendationService.refreshFeeds();
+        
+        ReviewRequest request = new ReviewRequest();
+        request.setRating(8);
+        reviewService.addReview(aliens.getId(), request, fan.getId());
+        awaitEvents();
+        // Still the cached feed until the next run
+        assertThat(recommendationService.getRecommendations(fan.getId(), 10))
+                .extracting(MovieCardResponse::getId).contains(aliens.getId());
+        
+        assertThat(recommendationService.refreshFeeds()).isEqualTo(1);
+        assertThat(recommendationService.getRecommendations(fan.getId(), 10))
+                .extracting(MovieCardResponse::getId).doesNotContain(alien.getId(), aliens.getId())
+                .startsWith(bladeRunner.getId());
+    }
+    
+    @Test
+    void shouldNotQueueUsersWithoutCachedFeed() throws InterruptedException {
+        ReviewRequest request = new ReviewRequest();
+        request.setRating(8);
+        reviewService.addReview(aliens.getId(), request, fan.getId());
+        awaitEvents();
+        
+        assertThat(recommendationService.refreshFeeds()).isZero();
+    }
+    
+    private Movie saveMovie(String title, String genre, String director) {
+        Movie movie = new Movie();
+        movie.setTitle(title);
+        movie.setGenre(genre);
+        movie.setDirector(director);
+        return movieRepository.save(movie);
+    }
+    
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        return userRepository.save(user);
+    }
+    
+    private void saveReview(User user, Movie movie, int rating) {
+        Review review = new Review();
+        review.setUser(user);
+        review.setMovie(movie);
+        review.setRating(rating);
+        reviewRepository.save(review);
+    }
+    
+    // Listeners hear of service writes from the event bus's worker thread
+    private void awaitEvents() throws InterruptedException {
+        assertThat(domainEventBus.awaitIdle(Duration.ofSeconds(5))).isTrue();
+    }
+}
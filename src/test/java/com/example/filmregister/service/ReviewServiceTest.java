@@ -1,23 +1,35 @@
 package com.example.filmregister.service;
 
+import com.example.filmregister.dto.request.ReviewPatchRequest;
 import com.example.filmregister.dto.request.ReviewRequest;
 import com.example.filmregister.dto.response.ReviewResponse;
 import com.example.filmregister.entity.Movie;
 import com.example.filmregister.entity.Review;
 import com.example.filmregister.entity.User;
+import com.example.filmregister.event.DomainEvent.ReviewCreated;
+import com.example.filmregister.event.DomainEvent.ReviewDeleted;
+import com.example.filmregister.event.DomainEvent.ReviewUpdated;
 import com.example.filmregister.exception.BadRequestException;
+import com.example.filmregister.exception.ConflictException;
 import com.example.filmregister.exception.ResourceNotFoundException;
 import com.example.filmregister.exception.ForbiddenException;
 import com.example.filmregister.repository.MovieRepository;
 import com.example.filmregister.repository.ReviewRepository;
 import com.example.filmregister.repository.UserRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +38,9 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +55,15 @@ class ReviewServiceTest {
     @Mock
     private UserRepository userRepository;
     
+    @Mock
+    private CacheManager cacheManager;
+    
+    @Mock
+    private Cache moviesCache;
+    
+    @Mock
+    private DomainEventBus domainEventBus;
+    
     @InjectMocks
     private ReviewService reviewService;
     
@@ -71,6 +95,7 @@ class ReviewServiceTest {
         review.setComment("Great movie!");
         review.setCreatedAt(LocalDateTime.now());
         review.setUpdatedAt(LocalDateTime.now());
+        review.setVersion(0L);
         
         reviewRequest = new ReviewRequest();
         reviewRequest.setRating(8);
@@ -79,65 +104,132 @@ class ReviewServiceTest {
     
     @Test
     void shouldAddReview() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
-        when(reviewRepository.existsByUserIdAndMovieId(1L, 1L)).thenReturn(false);
-        when(reviewRepository.save(any(Review.class))).thenReturn(review);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(reviewRepository.saveAndFlush(any(Review.class))).thenReturn(review);
+        when(cacheManager.getCache("movies")).thenReturn(moviesCache);
         
-        ReviewResponse response = reviewService.addReview(1L, reviewRequest, "testuser");
+        ReviewResponse response = reviewService.addReview(1L, reviewRequest, 1L);
         
         assertThat(response.getRating()).isEqualTo(8);
         assertThat(response.getComment()).isEqualTo("Great movie!");
-        verify(reviewRepository, times(1)).save(any(Review.class));
-    }
-    
-    @Test
-    void shouldThrowExceptionWhenUserNotFound() {
-        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
-        
-        assertThatThrownBy(() -> reviewService.addReview(1L, reviewRequest, "unknown"))
-            .isInstanceOf(ResourceNotFoundException.class)
-            .hasMessageContaining("User not found");
+        verify(reviewRepository, times(1)).saveAndFlush(any(Review.class));
+        verify(reviewRepository, never()).existsByUserIdAndMovieId(anyLong(), anyLong());
+        verify(userRepository, never()).findByUsername(any());
+        verify(movieRepository, times(1)).applyRatingDelta(1L, 1, 8);
+        verify(moviesCache, times(1)).evict(1L);
+        verify(domainEventBus, times(1)).publish(new ReviewCreated(1L, 1L, 1L, 8, review.getCreatedAt()));
     }
     
     @Test
     void shouldThrowExceptionWhenMovieNotFound() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(movieRepository.findById(999L)).thenReturn(Optional.empty());
         
-        assertThatThrownBy(() -> reviewService.addReview(999L, reviewRequest, "testuser"))
+        assertThatThrownBy(() -> reviewService.addReview(999L, reviewRequest, 1L))
             .isInstanceOf(ResourceNotFoundException.class)
             .hasMessageContaining("Movie not found");
     }
     
     @Test
     void shouldThrowExceptionWhenReviewAlreadyExists() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
-        when(reviewRepository.existsByUserIdAndMovieId(1L, 1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(reviewRepository.saveAndFlush(any(Review.class)))
+            .thenThrow(constraintViolation("PUBLIC.UK_REVIEWS_USER_MOVIE_INDEX_8"));
         
-        assertThatThrownBy(() -> reviewService.addReview(1L, reviewRequest, "testuser"))
+        assertThatThrownBy(() -> reviewService.addReview(1L, reviewRequest, 1L))
             .isInstanceOf(BadRequestException.class)
             .hasMessageContaining("already reviewed");
+        verify(movieRepository, never()).applyRatingDelta(anyLong(), anyLong(), anyLong());
+    }
+    
+    @Test
+    void shouldNotReportMissingUserAsDuplicateReview() {
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(reviewRepository.saveAndFlush(any(Review.class)))
+            .thenThrow(constraintViolation("FK_REVIEWS_USER_ID"));
+        
+        assertThatThrownBy(() -> reviewService.addReview(1L, reviewRequest, 1L))
+            .isInstanceOf(DataIntegrityViolationException.class);
     }
     
     @Test
     void shouldUpdateReview() {
-        when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
-        when(reviewRepository.save(any(Review.class))).thenReturn(review);
+        when(reviewRepository.findWithUserAndMovieById(1L)).thenReturn(Optional.of(review));
+        when(reviewRepository.saveAndFlush(any(Review.class))).thenReturn(review);
+        when(cacheManager.getCache("movies")).thenReturn(moviesCache);
         
         reviewRequest.setRating(9);
-        ReviewResponse response = reviewService.updateReview(1L, reviewRequest, "testuser");
+        reviewRequest.setVersion(0L);
+        ReviewResponse response = reviewService.updateReview(1L, reviewRequest, 1L);
         
         assertThat(response.getRating()).isEqualTo(9);
-        verify(reviewRepository, times(1)).save(any(Review.class));
+        verify(reviewRepository, times(1)).saveAndFlush(any(Review.class));
+        verify(movieRepository, times(1)).applyRatingDelta(1L, 0, 1);
+        verify(domainEventBus, times(1)).publish(argThat(event -> event instanceof ReviewUpdated updated
+                && updated.previousRating() == 8 && updated.rating() == 9));
+        verify(moviesCache, times(1)).evict(1L);
+    }
+    
+    @Test
+    void shouldNotTouchAggregatesWhenRatingUnchanged() {
+        when(reviewRepository.findWithUserAndMovieById(1L)).thenReturn(Optional.of(review));
+        when(reviewRepository.saveAndFlush(any(Review.class))).thenReturn(review);
+        
+        reviewRequest.setComment("Changed my mind about the ending");
+        reviewRequest.setVersion(0L);
+        reviewService.updateReview(1L, reviewRequest, 1L);
+        
+        verify(movieRepository, never()).applyRatingDelta(anyLong(), anyLong(), anyLong());
+        // Still published; the listeners skip updates that leave the rating as it was
+        verify(domainEventBus, times(1)).publish(argThat(event -> event instanceof ReviewUpdated updated
+                && updated.previousRating() == updated.rating()));
+    }
+    
+    @Test
+    void shouldPatchRatingAndKeepComment() {
+        when(reviewRepository.findWithUserAndMovieById(1L)).thenReturn(Optional.of(review));
+        when(reviewRepository.saveAndFlush(any(Review.class))).thenReturn(review);
+        when(cacheManager.getCache("movies")).thenReturn(moviesCache);
+        
+        ReviewPatchRequest patch = new ReviewPatchRequest();
+        patch.setRating(6);
+        patch.setVersion(0L);
+        ReviewResponse response = reviewService.patchReview(1L, patch, 1L);
+        
+        assertThat(response.getRating()).isEqualTo(6);
+        assertThat(response.getComment()).isEqualTo("Great movie!");
+        verify(movieRepository, times(1)).applyRatingDelta(1L, 0, -2);
+        verify(moviesCache, times(1)).evict(1L);
+    }
+    
+    @Test
+    void shouldRejectReviewUpdateOfStaleVersion() {
+        when(reviewRepository.findWithUserAndMovieById(1L)).thenReturn(Optional.of(review));
+        
+        reviewRequest.setVersion(5L);
+        
+        assertThatThrownBy(() -> reviewService.updateReview(1L, reviewRequest, 1L))
+            .isInstanceOf(ConflictException.class);
+        verify(reviewRepository, never()).saveAndFlush(any(Review.class));
+        verify(movieRepository, never()).applyRatingDelta(anyLong(), anyLong(), anyLong());
+    }
+    
+    @Test
+    void shouldRejectReviewUpdateWithoutVersion() {
+        assertThatThrownBy(() -> reviewService.updateReview(1L, reviewRequest, 1L))
+            .isInstanceOf(BadRequestException.class)
+            .hasMessageContaining("Version is required");
+        verify(reviewRepository, never()).saveAndFlush(any(Review.class));
     }
     
     @Test
     void shouldThrowExceptionWhenUpdatingOthersReview() {
-        when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
+        when(reviewRepository.findWithUserAndMovieById(1L)).thenReturn(Optional.of(review));
+        reviewRequest.setVersion(0L);
         
-        assertThatThrownBy(() -> reviewService.updateReview(1L, reviewRequest, "otheruser"))
+        assertThatThrownBy(() -> reviewService.updateReview(1L, reviewRequest, 2L))
             .isInstanceOf(ForbiddenException.class)
             .hasMessageContaining("can only edit your own reviews");
     }
@@ -146,26 +238,31 @@ class ReviewServiceTest {
     void shouldDeleteReview() {
         when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
         doNothing().when(reviewRepository).delete(review);
+        when(cacheManager.getCache("movies")).thenReturn(moviesCache);
         
-        reviewService.deleteReview(1L, "testuser");
+        reviewService.deleteReview(1L, 1L);
         
         verify(reviewRepository, times(1)).delete(review);
+        verify(movieRepository, times(1)).applyRatingDelta(1L, -1, -8);
+        verify(domainEventBus, times(1)).publish(argThat(event -> event instanceof ReviewDeleted deleted
+                && deleted.rating() == 8 && deleted.reviewCreatedAt().equals(review.getCreatedAt())));
+        verify(moviesCache, times(1)).evict(1L);
     }
     
     @Test
     void shouldThrowExceptionWhenDeletingOthersReview() {
         when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
         
-        assertThatThrownBy(() -> reviewService.deleteReview(1L, "otheruser"))
+        assertThatThrownBy(() -> reviewService.deleteReview(1L, 2L))
             .isInstanceOf(ForbiddenException.class)
             .hasMessageContaining("can only delete your own reviews");
     }
     
     @Test
     void shouldGetMovieReviews() {
-        when(reviewRepository.findByMovieId(1L)).thenReturn(Arrays.asList(review));
+        when(reviewRepository.findWithUserAndMovieByMovieId(eq(1L), argThat(Pageable::isUnpaged))).thenReturn(Arrays.asList(review));
         
-        List<ReviewResponse> responses = reviewService.getMovieReviews(1L);
+        List<ReviewResponse> responses = reviewService.getMovieReviews(1L, null, null);
         
         assertThat(responses).hasSize(1);
         assertThat(responses.get(0).getRating()).isEqualTo(8);
@@ -173,12 +270,16 @@ class ReviewServiceTest {
     
     @Test
     void shouldGetUserReviews() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(reviewRepository.findByUserId(1L)).thenReturn(Arrays.asList(review));
+        when(reviewRepository.findWithUserAndMovieByUserId(1L, PageRequest.of(2, 10))).thenReturn(Arrays.asList(review));
         
-        List<ReviewResponse> responses = reviewService.getUserReviews("testuser");
+        List<ReviewResponse> responses = reviewService.getUserReviews(1L, 2, 10);
         
         assertThat(responses).hasSize(1);
         assertThat(responses.get(0).getUsername()).isEqualTo("testuser");
     }
+    
+    private static DataIntegrityViolationException constraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("constraint violated", new SQLException("violation"), constraintName));
+    }
 }
@@ -0,0 +1,32 @@
+package com.example.filmregister.service;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements Hibernate prepares, leaving out id sequence fetches.
+ * The pooled optimizer only reaches the sequence once per allocation block, so
+ * counting those would make a test depend on what ran before it.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    
+    private static final AtomicInteger COUNT = new AtomicInteger();
+    
+    @Override
+    public String inspect(String sql) {
+        String lower = sql.toLowerCase();
+        if (!lower.contains("next value for") && !lower.contains("nextval(")) {
+            COUNT.incrementAndGet();
+        }
+        return sql;
+    }
+    
+    static void reset() {
+        COUNT.set(0);
+    }
+    
+    static int count() {
+        return COUNT.get();
+    }
+}
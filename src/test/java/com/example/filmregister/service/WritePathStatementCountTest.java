@@ -0,0 +1,187 @@
+package com.example.filmregister.service;
+
+import com.example.filmregister.dto.request.ReviewRequest;
+import com.example.filmregister.entity.Movie;
+import com.example.filmregister.entity.Review;
+import com.example.filmregister.entity.User;
+import com.example.filmregister.entity.Watchlist;
+import com.example.filmregister.exception.BadRequestException;
+import com.example.filmregister.exception.ResourceNotFoundException;
+import com.example.filmregister.repository.MovieRepository;
+import com.example.filmregister.repository.ReviewRepository;
+import com.example.filmregister.repository.UserRepository;
+import com.example.filmregister.repository.WatchlistRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Asserts the number of JDBC statements each watchlist and review write issues,
+ * starting from an empty persistence context as a real request would.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.filmregister.service.SqlStatementCounter")
+@ActiveProfiles("test")
+@Transactional
+class WritePathStatementCountTest {
+    
+    @Autowired
+    private WatchlistService watchlistService;
+    
+    @Autowired
+    private ReviewService reviewService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+    
+    @Autowired
+    private ReviewRepository reviewRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private User user;
+    private Movie movie;
+    private ReviewRequest reviewRequest;
+    
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("counter");
+        user.setEmail("counter@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        user = userRepository.save(user);
+        
+        movie = new Movie();
+        movie.setTitle("Counted Movie");
+        movie = movieRepository.save(movie);
+        
+        reviewRequest = new ReviewRequest();
+        reviewRequest.setRating(7);
+        reviewRequest.setComment("Fine");
+    }
+    
+    @Test
+    void addToWatchlistShouldSelectMovieAndInsert() {
+        startCounting();
+        
+        watchlistService.addToWatchlist(movie.getId(), user.getId());
+        entityManager.flush();
+        
+        // select movie, insert entry, insert outbox event
+        assertThat(statementCount()).isEqualTo(3);
+    }
+    
+    @Test
+    void duplicateWatchlistEntryShouldBeRejectedByConstraint() {
+        saveWatchlistEntry();
+        startCounting();
+        
+        assertThatThrownBy(() -> watchlistService.addToWatchlist(movie.getId(), user.getId()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already in your watchlist");
+        assertThat(statementCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void removeFromWatchlistShouldIssueSingleDelete() {
+        saveWatchlistEntry();
+        startCounting();
+        
+        watchlistService.removeFromWatchlist(movie.getId(), user.getId());
+        entityManager.flush();
+        
+        // delete entry, insert outbox event
+        assertThat(statementCount()).isEqualTo(2);
+        assertThat(watchlistRepository.existsByUserIdAndMovieId(user.getId(), movie.getId())).isFalse();
+    }
+    
+    @Test
+    void removeMissingWatchlistEntryShouldFailAfterSingleDelete() {
+        startCounting();
+        
+        assertThatThrownBy(() -> watchlistService.removeFromWatchlist(movie.getId(), user.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(statementCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void addReviewShouldNotLookUpUserBeforeInserting() {
+        startCounting();
+        
+        reviewService.addReview(movie.getId(), reviewRequest, user.getId());
+        entityManager.flush();
+        
+        // select movie, insert review, update aggregates, the author's name for the response,
+        // then insert outbox event
+        assertThat(statementCount()).isEqualTo(5);
+    }
+    
+    @Test
+    void updateReviewShouldLoadReviewWithOneSelect() {
+        Long reviewId = saveReview().getId();
+        startCounting();
+        
+        reviewRequest.setRating(9);
+        reviewRequest.setVersion(0L);
+        reviewService.updateReview(reviewId, reviewRequest, user.getId());
+        entityManager.flush();
+        
+        // select review with author and movie, update review, update aggregates, insert outbox event
+        assertThat(statementCount()).isEqualTo(4);
+    }
+    
+    @Test
+    void deleteReviewShouldNotLoadAuthorOrMovie() {
+        Long reviewId = saveReview().getId();
+        startCounting();
+        
+        reviewService.deleteReview(reviewId, user.getId());
+        entityManager.flush();
+        
+        // select review, delete review, update aggregates, insert outbox event
+        assertThat(statementCount()).isEqualTo(4);
+    }
+    
+    private void saveWatchlistEntry() {
+        Watchlist watchlist = new Watchlist();
+        watchlist.setUser(user);
+        watchlist.setMovie(movie);
+        watchlistRepository.save(watchlist);
+    }
+    
+    private Review saveReview() {
+        Review review = new Review();
+        review.setUser(user);
+        review.setMovie(movie);
+        review.setRating(7);
+        review = reviewRepository.save(review);
+        movieRepository.applyRatingDelta(movie.getId(), 1, 7);
+        return review;
+    }
+    
+    // Flush pending setup writes and start from an empty persistence context
+    private void startCounting() {
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+    }
+    
+    private long statementCount() {
+        return SqlStatementCounter.count();
+    }
+}